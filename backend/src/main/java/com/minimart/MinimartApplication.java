@@ -2,8 +2,10 @@ package com.minimart;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class MinimartApplication {
     public static void main(String[] args) {
         SpringApplication.run(MinimartApplication.class, args);
@@ -17,6 +17,7 @@ public class CorsConfig {
                         .allowedOrigins("https://minimartfrontend.netlify.app") // frontend dev server
                         .allowedMethods("GET", "POST", "PUT", "DELETE", "OPTIONS")
                         .allowedHeaders("*")
+                        .exposedHeaders("X-Next-Cursor")
                         .allowCredentials(true);
             }
         };
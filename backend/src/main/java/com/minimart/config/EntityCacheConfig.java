@@ -0,0 +1,39 @@
+package com.minimart.config;
+
+import com.minimart.model.CatalogItem;
+import com.minimart.model.Customer;
+import com.minimart.service.EntityCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.time.Duration;
+
+/**
+ * Read-through caches for the reference entities every checkout and every authenticated request looks up. Products
+ * are cached as immutable {@link CatalogItem}s: stock is reserved and read in the database, so stock changes never
+ * touch these entries.
+ */
+@Configuration
+public class EntityCacheConfig {
+
+    @Bean
+    public EntityCache<Long, CatalogItem> productCache(@Value("${app.cache.products.max-entries:10000}") int maxEntries,
+                                                       @Value("${app.cache.products.ttl:PT5M}") Duration ttl) {
+        return new EntityCache<>("products", maxEntries, ttl);
+    }
+
+    @Bean
+    public EntityCache<Long, Customer> customerCache(@Value("${app.cache.customers.max-entries:10000}") int maxEntries,
+                                                     @Value("${app.cache.customers.ttl:PT5M}") Duration ttl) {
+        return new EntityCache<>("customers", maxEntries, ttl);
+    }
+
+    /** Principals by email, with their roles and without credentials. */
+    @Bean
+    public EntityCache<String, UserDetails> userCache(@Value("${app.cache.users.max-entries:1024}") int maxEntries,
+                                                      @Value("${app.cache.users.ttl:PT1M}") Duration ttl) {
+        return new EntityCache<>("users", maxEntries, ttl);
+    }
+}
@@ -0,0 +1,84 @@
+package com.minimart.config;
+
+import com.minimart.service.EntityCache;
+import com.minimart.service.LoginService;
+import com.minimart.service.ReportCache;
+import com.minimart.service.ReportJobService;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Exposes the counters our own caches and pools keep as meters, next to the request, pool, Hibernate and JVM
+ * metrics that Spring Boot binds on its own.
+ */
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public MeterBinder reportCacheMetrics(ReportCache cache) {
+        return registry -> {
+            for (String result : new String[]{"hits", "misses", "coalesced", "invalidations", "evictions"}) {
+                counter(registry, "minimart.reports.cache." + result, cache, ReportCache::stats, result);
+            }
+            gauge(registry, "minimart.reports.cache.size", cache, ReportCache::stats, "size");
+        };
+    }
+
+    @Bean
+    public MeterBinder entityCacheMetrics(List<EntityCache<?, ?>> caches) {
+        return registry -> {
+            for (EntityCache<?, ?> cache : caches) {
+                Tags tags = Tags.of("cache", cache.name());
+                for (String result : new String[]{"hits", "misses", "expirations", "invalidations", "evictions"}) {
+                    counter(registry, "minimart.cache." + result, tags, cache, EntityCache::stats, result);
+                }
+                gauge(registry, "minimart.cache.size", tags, cache, EntityCache::stats, "size");
+                gauge(registry, "minimart.cache.hit.ratio", tags, cache, EntityCache::stats, "hitRatio");
+            }
+        };
+    }
+
+    @Bean
+    public MeterBinder reportJobMetrics(ReportJobService jobs) {
+        return registry -> Gauge.builder("minimart.reports.jobs.queued", jobs, ReportJobService::queued)
+                .description("Report jobs waiting for a worker")
+                .register(registry);
+    }
+
+    @Bean
+    public MeterBinder loginMetrics(LoginService logins) {
+        return registry -> {
+            for (String result : new String[]{"attempts", "succeeded", "failed", "rejected", "rehashed"}) {
+                counter(registry, "minimart.logins." + result, logins, LoginService::stats, result);
+            }
+            gauge(registry, "minimart.logins.active", logins, LoginService::stats, "active");
+            gauge(registry, "minimart.logins.queued", logins, LoginService::stats, "queued");
+        };
+    }
+
+    // Meters only hold their state object weakly, so pass the bean itself rather than a lambda capturing it.
+    private static <T> void counter(MeterRegistry registry, String name, T source, Function<T, Map<String, Object>> stats, String key) {
+        counter(registry, name, Tags.empty(), source, stats, key);
+    }
+
+    private static <T> void counter(MeterRegistry registry, String name, Tags tags, T source, Function<T, Map<String, Object>> stats, String key) {
+        FunctionCounter.builder(name, source, s -> ((Number) stats.apply(s).get(key)).doubleValue()).tags(tags).register(registry);
+    }
+
+    private static <T> void gauge(MeterRegistry registry, String name, T source, Function<T, Map<String, Object>> stats, String key) {
+        gauge(registry, name, Tags.empty(), source, stats, key);
+    }
+
+    private static <T> void gauge(MeterRegistry registry, String name, Tags tags, T source, Function<T, Map<String, Object>> stats, String key) {
+        Gauge.builder(name, source, s -> ((Number) stats.apply(s).get(key)).doubleValue()).tags(tags).register(registry);
+    }
+}
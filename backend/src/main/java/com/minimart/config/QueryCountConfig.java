@@ -0,0 +1,95 @@
+package com.minimart.config;
+
+import com.minimart.util.QueryCount;
+import com.minimart.util.QueryCountingDataSource;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+
+/**
+ * Statement counting for N+1 hunting, off unless {@code app.query-count.enabled} is set. Statements per request
+ * are recorded as {@code minimart.http.sql.statements} by route, requests above
+ * {@code app.query-count.warn-threshold} are logged, and a request sent with an {@code X-Query-Count} header gets
+ * its count back in the same header. Work handed to other threads (async logins, report jobs) is not attributed
+ * to the request.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.query-count.enabled", havingValue = "true")
+public class QueryCountConfig {
+    public static final String HEADER = "X-Query-Count";
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+
+    private static final Logger log = LoggerFactory.getLogger(QueryCountConfig.class);
+
+    @Bean
+    public static BeanPostProcessor queryCountingDataSource() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                return bean instanceof DataSource ds && !(bean instanceof QueryCountingDataSource)
+                        ? new QueryCountingDataSource(ds) : bean;
+            }
+        };
+    }
+
+    @Bean
+    public FilterRegistrationBean<OncePerRequestFilter> queryCountFilter(MeterRegistry registry,
+                                                                         @Value("${app.query-count.warn-threshold:20}") int warnThreshold) {
+        FilterRegistrationBean<OncePerRequestFilter> registration = new FilterRegistrationBean<>(new OncePerRequestFilter() {
+            @Override
+            protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+                    throws ServletException, IOException {
+                // Only a caller that asks for the count gets its response buffered, so streamed downloads stay streamed.
+                ContentCachingResponseWrapper buffered = request.getHeader(HEADER) != null ? new ContentCachingResponseWrapper(response) : null;
+                try (QueryCount.Scope scope = QueryCount.begin()) {
+                    chain.doFilter(buffered != null ? withoutSendfile(request) : request, buffered != null ? buffered : response);
+                    long count = scope.count();
+                    if (buffered != null) buffered.setHeader(HEADER, Long.toString(count));
+                    Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+                    String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+                    DistributionSummary.builder("minimart.http.sql.statements")
+                            .description("SQL statements issued per request")
+                            .tags("method", request.getMethod(), "uri", uri)
+                            .register(registry)
+                            .record(count);
+                    if (count > warnThreshold) {
+                        log.warn("{} {} issued {} SQL statements", request.getMethod(), request.getRequestURI(), count);
+                    }
+                } finally {
+                    if (buffered != null) buffered.copyBodyToResponse();
+                }
+            }
+        });
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+
+    // Sendfile writes straight to the socket, past the buffer, so a buffered response must not be offered it.
+    private static HttpServletRequest withoutSendfile(HttpServletRequest request) {
+        return new HttpServletRequestWrapper(request) {
+            @Override
+            public Object getAttribute(String name) {
+                return SENDFILE_SUPPORT.equals(name) ? null : super.getAttribute(name);
+            }
+        };
+    }
+}
@@ -1,6 +1,9 @@
 package com.minimart.config;
 
 import com.minimart.security.JwtAuthenticationFilter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -15,11 +18,14 @@ import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 import org.springframework.web.filter.CorsFilter;
 
+import java.time.Duration;
 import java.util.List;
 
 @Configuration
 public class SecurityConfig {
 
+    private static final Logger log = LoggerFactory.getLogger(SecurityConfig.class);
+
     private final JwtAuthenticationFilter jwtFilter;
     private static final boolean OPEN_MODE = true;
 
@@ -55,14 +61,48 @@ public class SecurityConfig {
         config.setAllowedOriginPatterns(List.of("*"));
         config.setAllowedHeaders(List.of("*"));
         config.setAllowedMethods(List.of("GET", "POST", "PUT", "DELETE", "OPTIONS"));
+        config.setExposedHeaders(List.of("X-Next-Cursor"));
 
         source.registerCorsConfiguration("/**", config);
         return new CorsFilter(source);
     }
 
+    /**
+     * BCrypt at {@code app.auth.bcrypt.strength}, or, when {@code app.auth.bcrypt.target-latency} is set, at the
+     * highest cost from that strength up whose hash still fits the budget on this machine. Stored hashes below the
+     * chosen cost are upgraded as their users log in.
+     */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(@Value("${app.auth.bcrypt.strength:10}") int strength,
+                                           @Value("${app.auth.bcrypt.target-latency:PT0S}") Duration targetLatency) {
+        if (!targetLatency.isZero()) {
+            strength = calibrateStrength(strength, targetLatency);
+            log.info("BCrypt cost calibrated to {} for a {} ms budget", strength, targetLatency.toMillis());
+        }
+        return new BCryptPasswordEncoder(strength);
+    }
+
+    // Each cost step doubles the work, so stop at the last cost whose doubling would overrun the budget. A slow
+    // machine never drops below the configured strength; it only gets a warning.
+    private static int calibrateStrength(int minimum, Duration budget) {
+        int strength = minimum;
+        long nanos = timeHash(strength);
+        if (nanos > budget.toNanos()) {
+            log.warn("BCrypt cost {} takes {} ms, over the {} ms budget; keeping it as the minimum",
+                    strength, nanos / 1_000_000, budget.toMillis());
+            return strength;
+        }
+        while (strength < 16 && nanos * 2 <= budget.toNanos()) {
+            nanos = timeHash(++strength);
+        }
+        return strength;
+    }
+
+    private static long timeHash(int strength) {
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(strength);
+        long start = System.nanoTime();
+        encoder.encode("calibration");
+        return System.nanoTime() - start;
     }
 
     @Bean
@@ -0,0 +1,14 @@
+package com.minimart.dto;
+
+import java.math.BigDecimal;
+
+/** Outcome of one order of a batch; {@code index} is its position in the request. */
+public record OrderBatchResult(int index, Long orderId, BigDecimal totalAmount, String error) {
+    public static OrderBatchResult created(int index, Long orderId, BigDecimal totalAmount) {
+        return new OrderBatchResult(index, orderId, totalAmount, null);
+    }
+
+    public static OrderBatchResult failed(int index, String error) {
+        return new OrderBatchResult(index, null, null, error);
+    }
+}
@@ -0,0 +1,29 @@
+package com.minimart.dto;
+
+import com.minimart.model.Order;
+import com.minimart.model.OrderStatus;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+
+public class OrderPage {
+    private final List<Summary> items;
+    private final String nextCursor;
+
+    public OrderPage(List<Summary> items, String nextCursor) {
+        this.items = items; this.nextCursor = nextCursor;
+    }
+
+    public List<Summary> getItems() { return items; }
+    public String getNextCursor() { return nextCursor; }
+
+    /** One row of the order history; lines are left to {@link OrderView}. */
+    public record Summary(Long id, Instant createdAt, OrderStatus status, BigDecimal totalAmount,
+                          Long customerId, String customerName) {
+        public static Summary of(Order o) {
+            return new Summary(o.getId(), o.getCreatedAt(), o.getStatus(), o.getTotalAmount(),
+                    o.getCustomer().getId(), o.getCustomer().getName());
+        }
+    }
+}
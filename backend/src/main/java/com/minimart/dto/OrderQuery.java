@@ -0,0 +1,26 @@
+package com.minimart.dto;
+
+import com.minimart.model.OrderStatus;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDate;
+
+public class OrderQuery {
+    private Long customerId;
+    private OrderStatus status;
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate from;
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate to; // inclusive
+    private Long productId; // orders containing this product
+    private String cursor;
+    private int limit = 100;
+
+    public Long getCustomerId() { return customerId; } public void setCustomerId(Long customerId) { this.customerId = customerId; }
+    public OrderStatus getStatus() { return status; } public void setStatus(OrderStatus status) { this.status = status; }
+    public LocalDate getFrom() { return from; } public void setFrom(LocalDate from) { this.from = from; }
+    public LocalDate getTo() { return to; } public void setTo(LocalDate to) { this.to = to; }
+    public Long getProductId() { return productId; } public void setProductId(Long productId) { this.productId = productId; }
+    public String getCursor() { return cursor; } public void setCursor(String cursor) { this.cursor = cursor; }
+    public int getLimit() { return limit; } public void setLimit(int limit) { this.limit = limit; }
+}
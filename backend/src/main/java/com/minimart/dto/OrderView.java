@@ -0,0 +1,35 @@
+package com.minimart.dto;
+
+import com.minimart.model.OrderStatus;
+import com.minimart.repository.OrderRepository.OrderViewRow;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/** Read model of one order with its customer and lines, detached from any session. */
+public record OrderView(Long id, Instant createdAt, OrderStatus status, BigDecimal totalAmount,
+                        Customer customer, List<Line> items) {
+
+    public record Customer(Long id, String name, String email, String phone) {}
+
+    public record Line(Long id, Long productId, String sku, String productName,
+                       Integer quantity, BigDecimal unitPrice, BigDecimal subTotal) {}
+
+    /** Folds the rows of {@code OrderRepository.findView}: one per line, or a single row for an order without lines. */
+    public static OrderView of(List<? extends OrderViewRow> rows) {
+        if (rows.isEmpty()) throw new NoSuchElementException("Order not found");
+        OrderViewRow first = rows.get(0);
+        List<Line> items = new ArrayList<>(rows.size());
+        for (OrderViewRow r : rows) {
+            if (r.getItemId() == null) continue;
+            items.add(new Line(r.getItemId(), r.getProductId(), r.getSku(), r.getProductName(),
+                    r.getQuantity(), r.getUnitPrice(), r.getSubTotal()));
+        }
+        return new OrderView(first.getOrderId(), first.getCreatedAt(), first.getStatus(), first.getTotalAmount(),
+                new Customer(first.getCustomerId(), first.getCustomerName(), first.getCustomerEmail(), first.getCustomerPhone()),
+                items);
+    }
+}
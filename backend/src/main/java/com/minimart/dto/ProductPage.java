@@ -0,0 +1,17 @@
+package com.minimart.dto;
+
+import com.minimart.model.Product;
+
+import java.util.List;
+
+public class ProductPage {
+    private final List<Product> items;
+    private final String nextCursor;
+
+    public ProductPage(List<Product> items, String nextCursor) {
+        this.items = items; this.nextCursor = nextCursor;
+    }
+
+    public List<Product> getItems() { return items; }
+    public String getNextCursor() { return nextCursor; }
+}
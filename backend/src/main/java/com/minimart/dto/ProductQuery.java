@@ -0,0 +1,21 @@
+package com.minimart.dto;
+
+import java.math.BigDecimal;
+
+public class ProductQuery {
+    private String category;
+    private String supplier;
+    private BigDecimal minPrice;
+    private BigDecimal maxPrice;
+    private String sort = "id"; // id | name | price, prefix with '-' for descending
+    private String cursor;
+    private int limit = 100;
+
+    public String getCategory() { return category; } public void setCategory(String category) { this.category = category; }
+    public String getSupplier() { return supplier; } public void setSupplier(String supplier) { this.supplier = supplier; }
+    public BigDecimal getMinPrice() { return minPrice; } public void setMinPrice(BigDecimal minPrice) { this.minPrice = minPrice; }
+    public BigDecimal getMaxPrice() { return maxPrice; } public void setMaxPrice(BigDecimal maxPrice) { this.maxPrice = maxPrice; }
+    public String getSort() { return sort; } public void setSort(String sort) { this.sort = sort; }
+    public String getCursor() { return cursor; } public void setCursor(String cursor) { this.cursor = cursor; }
+    public int getLimit() { return limit; } public void setLimit(int limit) { this.limit = limit; }
+}
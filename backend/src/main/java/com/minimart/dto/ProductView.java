@@ -0,0 +1,14 @@
+package com.minimart.dto;
+
+import com.minimart.model.CatalogItem;
+
+import java.math.BigDecimal;
+
+/** One product as served by {@code GET /api/products/{id}}: the cached catalog fields and the current stock. */
+public record ProductView(Long id, String sku, String name, BigDecimal price, Integer stock,
+                          String category, String supplier) {
+
+    public static ProductView of(CatalogItem item, Integer stock) {
+        return new ProductView(item.id(), item.sku(), item.name(), item.price(), stock, item.category(), item.supplier());
+    }
+}
@@ -0,0 +1,14 @@
+package com.minimart.model;
+
+import java.math.BigDecimal;
+
+/**
+ * The catalog fields of a product, which is what checkout and product lookups cache. Immutable, so one instance can
+ * be shared between threads; stock and version are left out because they change with every sale and are read from
+ * the database instead.
+ */
+public record CatalogItem(Long id, String sku, String name, BigDecimal price, String category, String supplier) {
+    public static CatalogItem of(Product p) {
+        return new CatalogItem(p.getId(), p.getSku(), p.getName(), p.getPrice(), p.getCategory(), p.getSupplier());
+    }
+}
@@ -7,7 +7,8 @@ import jakarta.validation.constraints.NotBlank;
 @Entity
 @Table(name = "customers")
 public class Customer extends AuditModel {
-    @Id @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Id @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "customers_seq")
+    @SequenceGenerator(name = "customers_seq", sequenceName = "customers_seq", allocationSize = Sequences.ALLOCATION_SIZE)
     private Long id;
 
     @NotBlank @Column(nullable = false)
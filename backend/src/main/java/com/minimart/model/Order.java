@@ -7,9 +7,14 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "orders")
+@Table(name = "orders", indexes = {
+        @Index(name="idx_orders_created_at_id", columnList = "created_at, id"),
+        @Index(name="idx_orders_customer_created_at_id", columnList = "customer_id, created_at, id"),
+        @Index(name="idx_orders_status_created_at_id", columnList = "status, created_at, id")
+})
 public class Order extends AuditModel {
-    @Id @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Id @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "orders_seq")
+    @SequenceGenerator(name = "orders_seq", sequenceName = "orders_seq", allocationSize = Sequences.ALLOCATION_SIZE)
     private Long id;
 
     @ManyToOne(optional = false, fetch = FetchType.LAZY)
@@ -1,18 +1,31 @@
 package com.minimart.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
 
 import java.math.BigDecimal;
 
 @Entity
-@Table(name = "order_items")
+@Table(name = "order_items", indexes = {
+        @Index(name="idx_order_items_order_id", columnList = "order_id"),
+        @Index(name="idx_order_items_product_order", columnList = "product_id, order_id")
+})
 public class OrderItem {
-    @Id @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Id @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_items_seq")
+    @SequenceGenerator(name = "order_items_seq", sequenceName = "order_items_seq", allocationSize = Sequences.ALLOCATION_SIZE)
     private Long id;
 
+    @JsonIgnore
     @ManyToOne(optional = false, fetch = FetchType.LAZY)
     private Product product;
 
+    // What a new line was priced from; the client sees it as the line's product, without stock that would be stale.
+    @Transient
+    @JsonProperty("product")
+    private CatalogItem catalogItem;
+
+    @JsonIgnore
     @ManyToOne(optional = false, fetch = FetchType.LAZY)
     private Order order;
 
@@ -22,13 +35,16 @@ public class OrderItem {
 
     public OrderItem() {}
 
-    public OrderItem(Product product, Order order, Integer quantity, BigDecimal unitPrice, BigDecimal subTotal) {
-        this.product = product; this.order = order; this.quantity = quantity;
+    public OrderItem(CatalogItem catalogItem, Product product, Order order, Integer quantity, BigDecimal unitPrice,
+                     BigDecimal subTotal) {
+        this.catalogItem = catalogItem; this.product = product; this.order = order; this.quantity = quantity;
         this.unitPrice = unitPrice; this.subTotal = subTotal;
     }
 
     public Long getId() { return id; }
+    @JsonIgnore
     public Product getProduct() { return product; } public void setProduct(Product product) { this.product = product; }
+    public CatalogItem getCatalogItem() { return catalogItem; }
     public Order getOrder() { return order; } public void setOrder(Order order) { this.order = order; }
     public Integer getQuantity() { return quantity; } public void setQuantity(Integer quantity) { this.quantity = quantity; }
     public BigDecimal getUnitPrice() { return unitPrice; } public void setUnitPrice(BigDecimal unitPrice) { this.unitPrice = unitPrice; }
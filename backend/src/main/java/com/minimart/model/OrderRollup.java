@@ -0,0 +1,51 @@
+package com.minimart.model;
+
+import jakarta.persistence.*;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Objects;
+
+/**
+ * Order count and revenue for one hour or one day bucket, maintained as orders commit. A bucket is split over
+ * {@code app.reports.rollups.shards} rows, each checkout adding to one of them, and reads sum the shards.
+ */
+@Entity
+@Table(name = "order_rollups")
+@IdClass(OrderRollup.Key.class)
+public class OrderRollup {
+    @Id @Enumerated(EnumType.STRING) @Column(length = 8)
+    private RollupGranularity granularity;
+    @Id
+    private Instant bucketStart;
+    @Id @Column(columnDefinition = "integer not null default 0")
+    private int shard;
+
+    @Column(nullable = false)
+    private long orders;
+    @Column(nullable = false, scale = 2, precision = 14)
+    private BigDecimal revenue = BigDecimal.ZERO;
+
+    public OrderRollup() {}
+
+    public RollupGranularity getGranularity() { return granularity; }
+    public Instant getBucketStart() { return bucketStart; }
+    public int getShard() { return shard; }
+    public long getOrders() { return orders; }
+    public BigDecimal getRevenue() { return revenue; }
+
+    public static class Key implements Serializable {
+        private RollupGranularity granularity;
+        private Instant bucketStart;
+        private int shard;
+
+        public Key() {}
+
+        @Override public boolean equals(Object o) {
+            return o instanceof Key k && granularity == k.granularity && Objects.equals(bucketStart, k.bucketStart)
+                    && shard == k.shard;
+        }
+        @Override public int hashCode() { return Objects.hash(granularity, bucketStart, shard); }
+    }
+}
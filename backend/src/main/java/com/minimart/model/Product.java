@@ -7,9 +7,16 @@ import jakarta.validation.constraints.NotNull;
 import java.math.BigDecimal;
 
 @Entity
-@Table(name = "products", indexes = @Index(name="idx_sku", columnList = "sku", unique = true))
+@Table(name = "products", indexes = {
+        @Index(name="idx_sku", columnList = "sku", unique = true),
+        @Index(name="idx_products_name_id", columnList = "name, id"),
+        @Index(name="idx_products_price_id", columnList = "price, id"),
+        @Index(name="idx_products_category_id", columnList = "category, id"),
+        @Index(name="idx_products_supplier_id", columnList = "supplier, id")
+})
 public class Product extends AuditModel {
-    @Id @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Id @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "products_seq")
+    @SequenceGenerator(name = "products_seq", sequenceName = "products_seq", allocationSize = Sequences.ALLOCATION_SIZE)
     private Long id;
 
     @NotBlank @Column(nullable = false)
@@ -27,6 +34,10 @@ public class Product extends AuditModel {
     private String category;
     private String supplier;
 
+    @Version
+    @Column(nullable = false, columnDefinition = "bigint default 0")
+    private long version;
+
     public Product() {}
 
     public Product(String name, String sku, BigDecimal price, Integer stock, String category, String supplier) {
@@ -41,4 +52,5 @@ public class Product extends AuditModel {
     public Integer getStock() { return stock; } public void setStock(Integer stock) { this.stock = stock; }
     public String getCategory() { return category; } public void setCategory(String category) { this.category = category; }
     public String getSupplier() { return supplier; } public void setSupplier(String supplier) { this.supplier = supplier; }
+    public long getVersion() { return version; }
 }
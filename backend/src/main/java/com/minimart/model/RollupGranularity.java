@@ -0,0 +1,5 @@
+package com.minimart.model;
+
+public enum RollupGranularity {
+    HOUR, DAY
+}
@@ -0,0 +1,55 @@
+package com.minimart.model;
+
+import jakarta.persistence.*;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Objects;
+
+/** Per-product sales for one hour or one day bucket, maintained as orders commit and sharded like {@link OrderRollup}. */
+@Entity
+@Table(name = "sales_rollups")
+@IdClass(SalesRollup.Key.class)
+public class SalesRollup {
+    @Id @Enumerated(EnumType.STRING) @Column(length = 8)
+    private RollupGranularity granularity;
+    @Id
+    private Instant bucketStart;
+    @Id
+    private Long productId;
+    @Id @Column(columnDefinition = "integer not null default 0")
+    private int shard;
+
+    @Column(nullable = false)
+    private long orders;
+    @Column(nullable = false)
+    private long quantity;
+    @Column(nullable = false, scale = 2, precision = 14)
+    private BigDecimal revenue = BigDecimal.ZERO;
+
+    public SalesRollup() {}
+
+    public RollupGranularity getGranularity() { return granularity; }
+    public Instant getBucketStart() { return bucketStart; }
+    public Long getProductId() { return productId; }
+    public int getShard() { return shard; }
+    public long getOrders() { return orders; }
+    public long getQuantity() { return quantity; }
+    public BigDecimal getRevenue() { return revenue; }
+
+    public static class Key implements Serializable {
+        private RollupGranularity granularity;
+        private Instant bucketStart;
+        private Long productId;
+        private int shard;
+
+        public Key() {}
+
+        @Override public boolean equals(Object o) {
+            return o instanceof Key k && granularity == k.granularity
+                    && Objects.equals(bucketStart, k.bucketStart) && Objects.equals(productId, k.productId) && shard == k.shard;
+        }
+        @Override public int hashCode() { return Objects.hash(granularity, bucketStart, productId, shard); }
+    }
+}
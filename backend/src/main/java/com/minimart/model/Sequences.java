@@ -0,0 +1,9 @@
+package com.minimart.model;
+
+/** How entity ids are drawn from their {@code <table>_seq} sequences, shared by the mappings and the JDBC inserts. */
+public final class Sequences {
+    /** Ids per sequence value: nextval v reserves the ids (v - ALLOCATION_SIZE, v]. */
+    public static final int ALLOCATION_SIZE = 50;
+
+    private Sequences() {}
+}
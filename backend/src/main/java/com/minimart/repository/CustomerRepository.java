@@ -1,6 +1,18 @@
 package com.minimart.repository;
 
 import com.minimart.model.Customer;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
-public interface CustomerRepository extends JpaRepository<Customer, Long> { }
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
+
+public interface CustomerRepository extends JpaRepository<Customer, Long> {
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "500"), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    @Query("select c from Customer c order by c.id")
+    Stream<Customer> streamAll();
+}
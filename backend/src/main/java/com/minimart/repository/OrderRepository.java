@@ -1,13 +1,94 @@
 package com.minimart.repository;
 
 import com.minimart.model.Order;
+import com.minimart.model.OrderStatus;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
+import java.math.BigDecimal;
 import java.time.Instant;
 import java.util.List;
+import java.util.stream.Stream;
 
-public interface OrderRepository extends JpaRepository<Order, Long> {
-    @Query("select o from Order o where o.createdAt between ?1 and ?2")
-    List<Order> findAllBetween(Instant from, Instant to);
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+
+public interface OrderRepository extends JpaRepository<Order, Long>, JpaSpecificationExecutor<Order>, OrderRepositoryCustom {
+    @Query("select o.id from Order o where o.createdAt >= ?1 and o.createdAt < ?2 and o.id > ?3 order by o.id")
+    List<Long> findIdsBetween(Instant from, Instant to, Long afterId, Pageable page);
+
+    @Query("select min(o.createdAt) from Order o")
+    Instant firstOrderAt();
+
+    interface OrderTotals {
+        Long getOrders();
+        BigDecimal getRevenue();
+    }
+
+    @Query("select count(o) as orders, coalesce(sum(o.totalAmount), 0) as revenue " +
+           "from Order o where o.createdAt >= ?1 and o.createdAt < ?2")
+    OrderTotals totalsBetween(Instant from, Instant to);
+
+    interface ProductSales {
+        Long getProductId();
+        String getName();
+        Long getOrders();
+        Long getQuantity();
+        BigDecimal getRevenue();
+    }
+
+    @Query("select p.id as productId, p.name as name, count(distinct o.id) as orders, " +
+           "sum(i.quantity) as quantity, sum(i.subTotal) as revenue " +
+           "from OrderItem i join i.order o join i.product p " +
+           "where o.createdAt >= ?1 and o.createdAt < ?2 " +
+           "group by p.id, p.name order by sum(i.quantity) desc, p.id")
+    List<ProductSales> productSalesBetween(Instant from, Instant to);
+
+    /** One row per order line (or one row for an order without lines), ordered so lines of an order are adjacent. */
+    interface OrderLineRow {
+        Long getOrderId();
+        Instant getCreatedAt();
+        OrderStatus getStatus();
+        BigDecimal getTotalAmount();
+        Long getCustomerId();
+        String getCustomerName();
+        Long getProductId();
+        String getSku();
+        String getProductName();
+        Integer getQuantity();
+        BigDecimal getUnitPrice();
+        BigDecimal getSubTotal();
+    }
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+    @Query("select o.id as orderId, o.createdAt as createdAt, o.status as status, o.totalAmount as totalAmount, " +
+           "c.id as customerId, c.name as customerName, p.id as productId, p.sku as sku, p.name as productName, " +
+           "i.quantity as quantity, i.unitPrice as unitPrice, i.subTotal as subTotal " +
+           "from Order o join o.customer c left join o.items i left join i.product p order by o.id, i.id")
+    Stream<OrderLineRow> streamLines();
+
+    interface OrderViewRow extends OrderLineRow {
+        Long getItemId();
+        String getCustomerEmail();
+        String getCustomerPhone();
+    }
+
+    /** The rows of one order for {@link com.minimart.dto.OrderView}: order, customer, lines and products in one query. */
+    @Query("select o.id as orderId, o.createdAt as createdAt, o.status as status, o.totalAmount as totalAmount, " +
+           "c.id as customerId, c.name as customerName, c.email as customerEmail, c.phone as customerPhone, " +
+           "i.id as itemId, p.id as productId, p.sku as sku, p.name as productName, " +
+           "i.quantity as quantity, i.unitPrice as unitPrice, i.subTotal as subTotal " +
+           "from Order o join o.customer c left join o.items i left join i.product p where o.id = ?1 order by i.id")
+    List<OrderViewRow> findView(Long id);
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+    @Query("select o.id as orderId, o.createdAt as createdAt, o.status as status, o.totalAmount as totalAmount, " +
+           "c.id as customerId, c.name as customerName, p.id as productId, p.sku as sku, p.name as productName, " +
+           "i.quantity as quantity, i.unitPrice as unitPrice, i.subTotal as subTotal " +
+           "from Order o join o.customer c left join o.items i left join i.product p " +
+           "where o.createdAt >= ?1 and o.createdAt < ?2 order by o.createdAt, o.id, i.id")
+    Stream<OrderLineRow> streamLinesBetween(Instant from, Instant to);
 }
@@ -0,0 +1,18 @@
+package com.minimart.repository;
+
+import com.minimart.model.Order;
+import com.minimart.model.OrderItem;
+
+import java.util.List;
+import java.util.Map;
+
+public interface OrderRepositoryCustom {
+    /** Inserts all lines of an already persisted order as a single JDBC batch. */
+    void insertItems(Long orderId, List<OrderItem> items);
+
+    /** Inserts new orders as one JDBC batch, with ids from their sequence, and returns the ids in the same order. Lines are not written. */
+    List<Long> insertOrders(List<Order> orders);
+
+    /** Inserts the lines of several persisted orders, keyed by order id, as one JDBC batch. */
+    void insertItems(Map<Long, List<OrderItem>> itemsByOrder);
+}
@@ -0,0 +1,57 @@
+package com.minimart.repository;
+
+import com.minimart.model.Order;
+import com.minimart.model.OrderItem;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+public class OrderRepositoryImpl implements OrderRepositoryCustom {
+    private static final String INSERT_ITEM =
+            "insert into order_items (id, order_id, product_id, quantity, unit_price, sub_total) values (?, ?, ?, ?, ?, ?)";
+
+    private static final String INSERT_ORDER =
+            "insert into orders (id, created_at, updated_at, customer_id, status, total_amount) values (?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbc;
+    private final SequenceIds ids;
+
+    public OrderRepositoryImpl(JdbcTemplate jdbc, SequenceIds ids) { this.jdbc = jdbc; this.ids = ids; }
+
+    @Override
+    public void insertItems(Long orderId, List<OrderItem> items) {
+        insertItems(Map.of(orderId, items));
+    }
+
+    @Override
+    public List<Long> insertOrders(List<Order> orders) {
+        if (orders.isEmpty()) return List.of();
+        List<Long> orderIds = ids.next("orders_seq", orders.size());
+        List<Object[]> rows = new ArrayList<>(orders.size());
+        for (int n = 0; n < orders.size(); n++) {
+            Order o = orders.get(n);
+            rows.add(new Object[]{orderIds.get(n), o.getCreatedAt().atOffset(ZoneOffset.UTC), o.getUpdatedAt().atOffset(ZoneOffset.UTC),
+                    o.getCustomer().getId(), o.getStatus().name(), o.getTotalAmount()});
+        }
+        jdbc.batchUpdate(INSERT_ORDER, rows);
+        return orderIds;
+    }
+
+    @Override
+    public void insertItems(Map<Long, List<OrderItem>> itemsByOrder) {
+        int count = itemsByOrder.values().stream().mapToInt(List::size).sum();
+        if (count == 0) return;
+        Iterator<Long> itemIds = ids.next("order_items_seq", count).iterator();
+        List<Object[]> rows = new ArrayList<>(count);
+        itemsByOrder.forEach((orderId, items) -> {
+            for (OrderItem i : items) {
+                rows.add(new Object[]{itemIds.next(), orderId, i.getProduct().getId(), i.getQuantity(), i.getUnitPrice(), i.getSubTotal()});
+            }
+        });
+        jdbc.batchUpdate(INSERT_ITEM, rows);
+    }
+}
@@ -1,10 +1,36 @@
 package com.minimart.repository;
 
 import com.minimart.model.Product;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
 import java.util.Optional;
+import java.util.stream.Stream;
 
-public interface ProductRepository extends JpaRepository<Product, Long> {
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
+
+public interface ProductRepository extends JpaRepository<Product, Long>, JpaSpecificationExecutor<Product>, ProductRepositoryCustom {
     Optional<Product> findBySku(String sku);
+
+    interface StockSnapshot {
+        Integer getStock();
+        Long getVersion();
+    }
+
+    @Query("select p.stock as stock, p.version as version from Product p where p.id = ?1")
+    Optional<StockSnapshot> findStockById(Long id);
+
+    @Modifying
+    @Query("update Product p set p.stock = p.stock - ?2, p.version = p.version + 1, p.updatedAt = CURRENT_TIMESTAMP " +
+           "where p.id = ?1 and p.version = ?3")
+    int decrementStockIfVersion(Long id, int quantity, long version);
+
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "500"), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    @Query("select p from Product p order by p.id")
+    Stream<Product> streamAll();
 }
@@ -0,0 +1,27 @@
+package com.minimart.repository;
+
+import com.minimart.model.Product;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public interface ProductRepositoryCustom {
+    /**
+     * Decrements stock for every product in one conditional statement.
+     * Returns the number of rows updated; fewer rows than entries means at least one product was short.
+     */
+    int decrementStock(Map<Long, Integer> quantities);
+
+    /** Unconditionally subtracts already-reserved quantities, e.g. when flushing write-behind counters. */
+    int subtractStock(Map<Long, Integer> quantities);
+
+    /**
+     * Inserts or updates the products by SKU in one statement. New products take every field, with stock 0 when
+     * unset; existing ones only have the given {@code columns} (of name, price, stock, category, supplier)
+     * overwritten. SKUs must be distinct within a call.
+     */
+    List<Upserted> upsertBySku(List<Product> products, Set<String> columns);
+
+    record Upserted(Long id, String sku, boolean inserted) {}
+}
@@ -0,0 +1,90 @@
+package com.minimart.repository;
+
+import com.minimart.model.Product;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+public class ProductRepositoryImpl implements ProductRepositoryCustom {
+    private static final String DECREMENT_STOCK =
+            "update products p set stock = p.stock - v.qty, version = p.version + 1, updated_at = now() " +
+            "from unnest(?::bigint[], ?::int[]) as v(id, qty) " +
+            "where p.id = v.id and p.stock >= v.qty";
+
+    private static final String SUBTRACT_STOCK =
+            "update products p set stock = p.stock - v.qty, version = p.version + 1, updated_at = now() " +
+            "from unnest(?::bigint[], ?::int[]) as v(id, qty) " +
+            "where p.id = v.id";
+
+    // xmax is 0 only for a freshly inserted row version.
+    private static final String UPSERT =
+            "insert into products (id, sku, name, price, stock, category, supplier, version, created_at, updated_at) " +
+            "select v.id, v.sku, v.name, v.price, coalesce(v.stock, 0), v.category, v.supplier, 0, now(), now() " +
+            "from unnest(?::bigint[], ?::varchar[], ?::varchar[], ?::numeric[], ?::int[], ?::varchar[], ?::varchar[]) " +
+            "as v(id, sku, name, price, stock, category, supplier) " +
+            "on conflict (sku) do update set %s version = products.version + 1, updated_at = now() " +
+            "returning id, sku, xmax = 0 as inserted";
+
+    private static final List<String> UPDATABLE = List.of("name", "price", "stock", "category", "supplier");
+
+    private final JdbcTemplate jdbc;
+    private final SequenceIds ids;
+
+    public ProductRepositoryImpl(JdbcTemplate jdbc, SequenceIds ids) { this.jdbc = jdbc; this.ids = ids; }
+
+    @Override
+    public int decrementStock(Map<Long, Integer> quantities) {
+        return update(DECREMENT_STOCK, quantities);
+    }
+
+    @Override
+    public int subtractStock(Map<Long, Integer> quantities) {
+        return update(SUBTRACT_STOCK, quantities);
+    }
+
+    @Override
+    public List<Upserted> upsertBySku(List<Product> products, Set<String> columns) {
+        if (products.isEmpty()) return List.of();
+        // Rows that turn out to be updates leave their id unused; ids are cheap, a lookup per chunk is not.
+        Long[] id = ids.next("products_seq", products.size()).toArray(new Long[0]);
+        int n = products.size();
+        String[] sku = new String[n], name = new String[n], category = new String[n], supplier = new String[n];
+        BigDecimal[] price = new BigDecimal[n];
+        Integer[] stock = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            Product p = products.get(i);
+            sku[i] = p.getSku(); name[i] = p.getName(); price[i] = p.getPrice(); stock[i] = p.getStock();
+            category[i] = p.getCategory(); supplier[i] = p.getSupplier();
+        }
+        String set = UPDATABLE.stream().filter(columns::contains)
+                .map(c -> c + " = excluded." + c + ",").collect(Collectors.joining(" "));
+        return jdbc.query(con -> {
+            PreparedStatement ps = con.prepareStatement(UPSERT.formatted(set));
+            ps.setArray(1, con.createArrayOf("bigint", id));
+            ps.setArray(2, con.createArrayOf("varchar", sku));
+            ps.setArray(3, con.createArrayOf("varchar", name));
+            ps.setArray(4, con.createArrayOf("numeric", price));
+            ps.setArray(5, con.createArrayOf("integer", stock));
+            ps.setArray(6, con.createArrayOf("varchar", category));
+            ps.setArray(7, con.createArrayOf("varchar", supplier));
+            return ps;
+        }, (rs, i) -> new Upserted(rs.getLong("id"), rs.getString("sku"), rs.getBoolean("inserted")));
+    }
+
+    private int update(String sql, Map<Long, Integer> quantities) {
+        if (quantities.isEmpty()) return 0;
+        Long[] ids = quantities.keySet().toArray(new Long[0]);
+        Integer[] qtys = quantities.values().toArray(new Integer[0]);
+        return jdbc.update(con -> {
+            PreparedStatement ps = con.prepareStatement(sql);
+            ps.setArray(1, con.createArrayOf("bigint", ids));
+            ps.setArray(2, con.createArrayOf("integer", qtys));
+            return ps;
+        });
+    }
+}
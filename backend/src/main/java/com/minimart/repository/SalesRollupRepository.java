@@ -0,0 +1,28 @@
+package com.minimart.repository;
+
+import com.minimart.model.RollupGranularity;
+import com.minimart.model.SalesRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+
+public interface SalesRollupRepository extends JpaRepository<SalesRollup, SalesRollup.Key>, SalesRollupRepositoryCustom {
+    @Query("select coalesce(sum(r.orders), 0) as orders, coalesce(sum(r.revenue), 0) as revenue " +
+           "from OrderRollup r where r.granularity = ?1 and r.bucketStart >= ?2 and r.bucketStart < ?3")
+    OrderRepository.OrderTotals totalsBetween(RollupGranularity granularity, Instant from, Instant to);
+
+    interface ProductRollup {
+        Long getProductId();
+        Long getOrders();
+        Long getQuantity();
+        BigDecimal getRevenue();
+    }
+
+    @Query("select r.productId as productId, sum(r.orders) as orders, sum(r.quantity) as quantity, sum(r.revenue) as revenue " +
+           "from SalesRollup r where r.granularity = ?1 and r.bucketStart >= ?2 and r.bucketStart < ?3 " +
+           "group by r.productId")
+    List<ProductRollup> productSalesBetween(RollupGranularity granularity, Instant from, Instant to);
+}
@@ -0,0 +1,22 @@
+package com.minimart.repository;
+
+import com.minimart.model.RollupGranularity;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.ZoneId;
+
+public interface SalesRollupRepositoryCustom {
+    /**
+     * Adds orders to a bucket: their count and revenue to the order rollup and, per product, the orders containing
+     * it and its quantity and revenue to the sales rollups, all on the rows of the bucket's {@code shard}.
+     */
+    void addOrders(RollupGranularity granularity, Instant bucketStart, int shard, long orders, BigDecimal orderRevenue,
+                   Long[] productIds, Long[] productOrders, Long[] quantities, BigDecimal[] revenues);
+
+    /**
+     * Replaces every bucket in {@code [from, to)} with aggregates recomputed from orders and order items, each on its
+     * shard 0.
+     */
+    int rebuild(RollupGranularity granularity, Instant from, Instant to, ZoneId zone);
+}
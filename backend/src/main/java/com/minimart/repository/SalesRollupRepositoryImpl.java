@@ -0,0 +1,85 @@
+package com.minimart.repository;
+
+import com.minimart.model.RollupGranularity;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.ZoneId;
+
+public class SalesRollupRepositoryImpl implements SalesRollupRepositoryCustom {
+    private static final String ADD_ORDERS =
+            "insert into order_rollups (granularity, bucket_start, shard, orders, revenue) values (?, ?, ?, ?, ?) " +
+            "on conflict (granularity, bucket_start, shard) do update " +
+            "set orders = order_rollups.orders + excluded.orders, revenue = order_rollups.revenue + excluded.revenue";
+    private static final String ADD_LINES =
+            "insert into sales_rollups (granularity, bucket_start, product_id, shard, orders, quantity, revenue) " +
+            "select ?, ?, v.product_id, ?, v.orders, v.quantity, v.revenue " +
+            "from unnest(?::bigint[], ?::bigint[], ?::bigint[], ?::numeric[]) as v(product_id, orders, quantity, revenue) " +
+            "on conflict (granularity, bucket_start, product_id, shard) do update " +
+            "set orders = sales_rollups.orders + excluded.orders, quantity = sales_rollups.quantity + excluded.quantity, " +
+            "revenue = sales_rollups.revenue + excluded.revenue";
+
+    // Hour buckets are UTC hours; day buckets follow the report time zone, passed as the last two parameters.
+    private static final String HOUR_BUCKET = "date_trunc('hour', o.created_at at time zone 'UTC') at time zone 'UTC'";
+    private static final String DAY_BUCKET = "date_trunc('day', o.created_at at time zone ?) at time zone ?";
+
+    private final JdbcTemplate jdbc;
+
+    public SalesRollupRepositoryImpl(JdbcTemplate jdbc) { this.jdbc = jdbc; }
+
+    @Override
+    public void addOrders(RollupGranularity granularity, Instant bucketStart, int shard, long orders, BigDecimal orderRevenue,
+                          Long[] productIds, Long[] productOrders, Long[] quantities, BigDecimal[] revenues) {
+        Timestamp bucket = Timestamp.from(bucketStart);
+        jdbc.update(ADD_ORDERS, granularity.name(), bucket, shard, orders, orderRevenue);
+        jdbc.update(con -> {
+            PreparedStatement ps = con.prepareStatement(ADD_LINES);
+            ps.setString(1, granularity.name());
+            ps.setTimestamp(2, bucket);
+            ps.setInt(3, shard);
+            ps.setArray(4, con.createArrayOf("bigint", productIds));
+            ps.setArray(5, con.createArrayOf("bigint", productOrders));
+            ps.setArray(6, con.createArrayOf("bigint", quantities));
+            ps.setArray(7, con.createArrayOf("numeric", revenues));
+            return ps;
+        });
+    }
+
+    @Override
+    public int rebuild(RollupGranularity granularity, Instant from, Instant to, ZoneId zone) {
+        Timestamp f = Timestamp.from(from), t = Timestamp.from(to);
+        jdbc.update("delete from order_rollups where granularity = ? and bucket_start >= ? and bucket_start < ?",
+                granularity.name(), f, t);
+        jdbc.update("delete from sales_rollups where granularity = ? and bucket_start >= ? and bucket_start < ?",
+                granularity.name(), f, t);
+
+        boolean day = granularity == RollupGranularity.DAY;
+        String bucket = day ? DAY_BUCKET : HOUR_BUCKET;
+        Object[] zoneArgs = day ? new Object[]{zone.getId(), zone.getId()} : new Object[0];
+
+        int buckets = jdbc.update(
+                "insert into order_rollups (granularity, bucket_start, shard, orders, revenue) " +
+                "select ?, " + bucket + ", 0, count(*), coalesce(sum(o.total_amount), 0) " +
+                "from orders o where o.created_at >= ? and o.created_at < ? group by 2",
+                args(granularity.name(), zoneArgs, f, t));
+        jdbc.update(
+                "insert into sales_rollups (granularity, bucket_start, product_id, shard, orders, quantity, revenue) " +
+                "select ?, " + bucket + ", i.product_id, 0, count(distinct o.id), sum(i.quantity), sum(i.sub_total) " +
+                "from orders o join order_items i on i.order_id = o.id " +
+                "where o.created_at >= ? and o.created_at < ? group by 2, 3",
+                args(granularity.name(), zoneArgs, f, t));
+        return buckets;
+    }
+
+    private static Object[] args(String granularity, Object[] zoneArgs, Timestamp from, Timestamp to) {
+        Object[] args = new Object[3 + zoneArgs.length];
+        args[0] = granularity;
+        System.arraycopy(zoneArgs, 0, args, 1, zoneArgs.length);
+        args[args.length - 2] = from;
+        args[args.length - 1] = to;
+        return args;
+    }
+}
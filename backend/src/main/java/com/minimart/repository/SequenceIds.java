@@ -0,0 +1,56 @@
+package com.minimart.repository;
+
+import com.minimart.model.Sequences;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static com.minimart.model.Sequences.ALLOCATION_SIZE;
+
+/**
+ * Ids for rows inserted through JDBC, drawn from the entities' sequences. Like Hibernate's pooled optimizer, each
+ * sequence value covers a block of {@link Sequences#ALLOCATION_SIZE} ids that is handed out from memory, so most
+ * calls need no round trip and the ids never collide with those Hibernate allocates.
+ */
+@Component
+public class SequenceIds {
+    private final Map<String, Block> blocks = new ConcurrentHashMap<>();
+    private final JdbcTemplate jdbc;
+
+    public SequenceIds(JdbcTemplate jdbc) { this.jdbc = jdbc; }
+
+    /** {@code n} fresh ids from {@code sequence}. */
+    public List<Long> next(String sequence, int n) {
+        Block block = blocks.computeIfAbsent(sequence, s -> new Block());
+        List<Long> ids = new ArrayList<>(n);
+        // A lock rather than a monitor: the holder may wait on nextval, which would pin a virtual thread's carrier.
+        block.lock.lock();
+        try {
+            while (ids.size() < n && block.next <= block.last) ids.add(block.next++);
+            while (ids.size() < n) {
+                int fetch = (n - ids.size() + ALLOCATION_SIZE - 1) / ALLOCATION_SIZE;
+                // Other sessions draw from the sequence too, so the fetched blocks need not be adjacent.
+                for (Long top : jdbc.queryForList("select nextval(?) from generate_series(1, ?)", Long.class, sequence, fetch)) {
+                    // A new sequence starts at 1, whose block holds that id only.
+                    long id = Math.max(1, top - ALLOCATION_SIZE + 1);
+                    while (ids.size() < n && id <= top) ids.add(id++);
+                    block.next = id;
+                    block.last = top;
+                }
+            }
+        } finally {
+            block.lock.unlock();
+        }
+        return ids;
+    }
+
+    private static final class Block {
+        final ReentrantLock lock = new ReentrantLock();
+        long next = 1, last = 0;
+    }
+}
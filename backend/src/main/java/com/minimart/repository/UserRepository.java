@@ -1,11 +1,26 @@
 package com.minimart.repository;
 
 import com.minimart.model.User;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
 import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<User, Long> {
+    // Roles in the same select; eager fetching alone loads them with one more select per user.
+    @Override
+    @EntityGraph(attributePaths = "roles")
+    List<User> findAll();
+
     Optional<User> findByEmail(String email);
     boolean existsByEmail(String email);
+
+    @Transactional
+    @Modifying
+    @Query("update User u set u.password = ?2 where u.id = ?1")
+    int updatePassword(Long id, String passwordHash);
 }
@@ -3,6 +3,7 @@ package com.minimart.security;
 import com.minimart.model.Role;
 import com.minimart.model.User;
 import com.minimart.repository.UserRepository;
+import com.minimart.service.EntityCache;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.*;
 import org.springframework.stereotype.Service;
@@ -12,15 +13,29 @@ import java.util.stream.Collectors;
 @Service
 public class CustomUserDetailsService implements UserDetailsService {
     private final UserRepository repo;
+    private final EntityCache<String, UserDetails> principals;
 
-    public CustomUserDetailsService(UserRepository repo) { this.repo = repo; }
+    public CustomUserDetailsService(UserRepository repo, EntityCache<String, UserDetails> principals) {
+        this.repo = repo; this.principals = principals;
+    }
 
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
         User u = repo.findByEmail(username).orElseThrow(() -> new UsernameNotFoundException("User not found"));
+        return details(u, u.getPassword());
+    }
+
+    /** The principal of a request whose token is already verified: roles and status, no credentials. Cached. */
+    public UserDetails loadPrincipal(String username) throws UsernameNotFoundException {
+        UserDetails user = principals.get(username, name -> repo.findByEmail(name).map(u -> details(u, "")).orElse(null));
+        if (user == null) throw new UsernameNotFoundException("User not found");
+        return user;
+    }
+
+    private static UserDetails details(User u, String password) {
         return new org.springframework.security.core.userdetails.User(
                 u.getEmail(),
-                u.getPassword(),
+                password,
                 u.isEnabled(),
                 true, true, true,
                 u.getRoles().stream()
@@ -1,14 +1,16 @@
 package com.minimart.security;
 
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpHeaders;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
@@ -19,11 +21,16 @@ import java.io.IOException;
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtUtil jwt;
-    private final UserDetailsService uds;
+    private final CustomUserDetailsService uds;
+    private final PrincipalCache principals;
+    private final boolean fromClaims;
 
-    public JwtAuthenticationFilter(JwtUtil jwt, UserDetailsService uds) {
+    public JwtAuthenticationFilter(JwtUtil jwt, CustomUserDetailsService uds, PrincipalCache principals,
+                                   @Value("${app.security.principal:database}") String principalSource) {
         this.jwt = jwt;
         this.uds = uds;
+        this.principals = principals;
+        this.fromClaims = "claims".equalsIgnoreCase(principalSource);
     }
 
     @Override
@@ -36,12 +43,14 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         if (header != null && header.startsWith("Bearer ")) {
             final String token = header.substring(7);
 
-            if (jwt.validate(token)) {
-                String username = jwt.getSubject(token);
+            Claims claims = parse(token);
 
-                if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                    UserDetails user = uds.loadUserByUsername(username);
+            if (claims != null && claims.getSubject() != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+                UserDetails user = fromClaims
+                        ? principals.resolve(token, claims)
+                        : uds.loadPrincipal(claims.getSubject());
 
+                if (user != null) {
                     UsernamePasswordAuthenticationToken auth =
                             new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities());
 
@@ -53,4 +62,12 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         chain.doFilter(request, response);
     }
+
+    private Claims parse(String token) {
+        try {
+            return jwt.verify(token);
+        } catch (JwtException | IllegalArgumentException e) {
+            return null;
+        }
+    }
 }
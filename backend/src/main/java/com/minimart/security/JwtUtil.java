@@ -6,21 +6,39 @@ import io.jsonwebtoken.security.Keys;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Date;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 @Component
 public class JwtUtil {
     private final Key key;
     private final long expirationMs;
+    private final JwtParser parser;
+    private final int maxVerified;
+    // Recently verified tokens by SHA-256 of the token, so the cache never holds usable bearer tokens.
+    private final LinkedHashMap<ByteBuffer, Claims> verified;
 
     public JwtUtil(
             @Value("${app.jwt.secret}") String secret,
-            @Value("${app.jwt.expirationMs}") long expirationMs
+            @Value("${app.jwt.expirationMs}") long expirationMs,
+            @Value("${app.jwt.verified-cache.max-entries:4096}") int maxVerified
     ) {
         this.key = Keys.hmacShaKeyFor(Decoders.BASE64.decode(ensureBase64(secret)));
         this.expirationMs = expirationMs;
+        this.parser = Jwts.parserBuilder().setSigningKey(key).build();
+        this.maxVerified = maxVerified;
+        this.verified = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<ByteBuffer, Claims> eldest) {
+                return size() > JwtUtil.this.maxVerified;
+            }
+        };
     }
 
     private String ensureBase64(String s) {
@@ -44,24 +62,50 @@ public class JwtUtil {
                 .compact();
     }
 
+    /**
+     * Verifies the signature and expiry of {@code token} and returns its claims. A token seen recently is answered
+     * from the cache without re-checking the signature or decoding it again, for as long as it has not expired.
+     * The returned claims are shared between callers and must not be modified.
+     *
+     * @throws JwtException if the token is malformed, tampered with or expired
+     */
+    public Claims verify(String token) {
+        ByteBuffer digest = digest(token);
+        Claims claims;
+        synchronized (verified) { claims = verified.get(digest); }
+        if (claims != null) {
+            Date exp = claims.getExpiration();
+            if (exp == null || exp.getTime() > System.currentTimeMillis()) return claims;
+            synchronized (verified) { verified.remove(digest); }
+        }
+        claims = parser.parseClaimsJws(token).getBody();
+        synchronized (verified) { verified.put(digest, claims); }
+        return claims;
+    }
+
     public String getSubject(String token) {
-        return parser().parseClaimsJws(token).getBody().getSubject();
+        return verify(token).getSubject();
     }
 
     public Claims getAllClaims(String token) {
-        return parser().parseClaimsJws(token).getBody();
+        return verify(token);
     }
 
     public boolean validate(String token) {
         try {
-            parser().parseClaimsJws(token);
+            verify(token);
             return true;
-        } catch (JwtException e) {
+        } catch (JwtException | IllegalArgumentException e) {
             return false;
         }
     }
 
-    private JwtParser parser() {
-        return Jwts.parserBuilder().setSigningKey(key).build();
+    /** SHA-256 of a token, for keying caches without holding usable bearer tokens. */
+    static ByteBuffer digest(String token) {
+        try {
+            return ByteBuffer.wrap(MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
     }
 }
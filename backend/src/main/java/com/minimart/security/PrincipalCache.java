@@ -0,0 +1,84 @@
+package com.minimart.security;
+
+import io.jsonwebtoken.Claims;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Principals built from verified token claims, so authenticating a request needs no database round trip. Entries
+ * are keyed by the token's SHA-256 in a small LRU. Changing or removing a user revokes every token issued to them up
+ * to that moment; the user has to log in again and picks up their new roles from the fresh token.
+ */
+@Component
+public class PrincipalCache {
+    private final int maxEntries;
+    private final Duration tokenLifetime;
+    private final LinkedHashMap<ByteBuffer, UserDetails> byToken;
+    // Tokens of a user issued before this instant are rejected. Entries outlive the longest token and then go.
+    private final Map<String, Instant> revokedBefore = new ConcurrentHashMap<>();
+
+    public PrincipalCache(@Value("${app.security.principal-cache.max-entries:1024}") int maxEntries,
+                          @Value("${app.jwt.expirationMs}") long expirationMs) {
+        this.maxEntries = maxEntries;
+        this.tokenLifetime = Duration.ofMillis(expirationMs);
+        this.byToken = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<ByteBuffer, UserDetails> eldest) {
+                return size() > PrincipalCache.this.maxEntries;
+            }
+        };
+    }
+
+    /** The principal for an already verified token, or {@code null} when the token has been revoked. */
+    public UserDetails resolve(String token, Claims claims) {
+        String username = claims.getSubject();
+        if (username == null || isRevoked(username, claims.getIssuedAt())) return null;
+        ByteBuffer key = JwtUtil.digest(token);
+        synchronized (byToken) {
+            UserDetails cached = byToken.get(key);
+            if (cached != null) return cached;
+        }
+        UserDetails user = User.withUsername(username).password("").authorities(authorities(claims)).build();
+        synchronized (byToken) { byToken.put(key, user); }
+        return user;
+    }
+
+    /**
+     * Rejects every token issued to {@code username} so far. {@code iat} has whole-second precision, so the cutoff
+     * is rounded up: a token from earlier in the current second is revoked too, as is one issued by a login later
+     * in that same second, which has to be repeated.
+     */
+    public void revoke(String username) {
+        if (username == null) return;
+        Instant now = Instant.now();
+        revokedBefore.put(username, now.truncatedTo(ChronoUnit.SECONDS).plusSeconds(1));
+        revokedBefore.values().removeIf(t -> t.isBefore(now.minus(tokenLifetime)));
+        synchronized (byToken) {
+            byToken.values().removeIf(u -> u.getUsername().equals(username));
+        }
+    }
+
+    private boolean isRevoked(String username, Date issuedAt) {
+        Instant cutoff = revokedBefore.get(username);
+        return cutoff != null && (issuedAt == null || issuedAt.toInstant().isBefore(cutoff));
+    }
+
+    private static List<GrantedAuthority> authorities(Claims claims) {
+        Object roles = claims.get("roles");
+        if (!(roles instanceof Collection<?> names)) return List.of();
+        List<GrantedAuthority> authorities = new ArrayList<>(names.size());
+        for (Object r : names) authorities.add(new SimpleGrantedAuthority("ROLE_" + r));
+        return authorities;
+    }
+}
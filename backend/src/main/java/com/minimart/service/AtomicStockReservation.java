@@ -0,0 +1,21 @@
+package com.minimart.service;
+
+import com.minimart.repository.ProductRepository;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/** One conditional bulk update; the row lock taken by the update serialises competing checkouts. */
+@Component
+@ConditionalOnProperty(name = "app.stock.strategy", havingValue = "atomic", matchIfMissing = true)
+public class AtomicStockReservation implements StockReservation {
+    private final ProductRepository productRepo;
+
+    public AtomicStockReservation(ProductRepository productRepo) { this.productRepo = productRepo; }
+
+    @Override
+    public boolean reserve(Map<Long, Integer> quantities) {
+        return productRepo.decrementStock(quantities) == quantities.size();
+    }
+}
@@ -0,0 +1,107 @@
+package com.minimart.service;
+
+import com.minimart.repository.OrderRepository;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Renders the invoices of a date range concurrently and writes them into a ZIP as each one finishes. At most
+ * {@code app.invoices.bulk.parallelism} renders run at once, which also caps the database connections taken, and
+ * at most twice that many finished invoices wait to be written, so memory does not grow with the range.
+ * Workers are virtual threads when the runtime supports them (JDK 21+), platform threads otherwise.
+ */
+@Service
+public class BulkInvoiceService {
+    private static final int ID_PAGE = 1000;
+
+    private final OrderRepository orderRepo;
+    private final InvoiceService invoices;
+    private final InvoiceStore store;
+    private final SimpleAsyncTaskExecutor executor;
+    private final int window;
+
+    public BulkInvoiceService(OrderRepository orderRepo, InvoiceService invoices, InvoiceStore store,
+                              @Value("${app.invoices.bulk.parallelism:4}") int parallelism) {
+        this.orderRepo = orderRepo; this.invoices = invoices; this.store = store;
+        this.executor = new SimpleAsyncTaskExecutor("invoice-zip-");
+        this.executor.setVirtualThreads(Runtime.version().feature() >= 21);
+        this.executor.setConcurrencyLimit(parallelism);
+        this.window = parallelism * 2;
+    }
+
+    private record Rendered(Long orderId, Path file, byte[] bytes) {}
+
+    public void writeZip(Instant from, Instant to, OutputStream out) throws IOException {
+        ZipOutputStream zip = new ZipOutputStream(out);
+        zip.setLevel(Deflater.BEST_SPEED);
+        CompletionService<Rendered> done = new ExecutorCompletionService<>(executor);
+        int inFlight = 0;
+        try {
+            Long after = 0L;
+            List<Long> ids;
+            do {
+                ids = orderRepo.findIdsBetween(from, to, after, PageRequest.of(0, ID_PAGE));
+                for (Long id : ids) {
+                    if (inFlight == window) { write(zip, take(done)); inFlight--; }
+                    done.submit(() -> render(id));
+                    inFlight++;
+                    after = id;
+                }
+            } while (ids.size() == ID_PAGE);
+            for (; inFlight > 0; inFlight--) write(zip, take(done));
+            zip.finish();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while building invoice archive", e);
+        } finally {
+            // Drain whatever is still running so no render outlives the request.
+            for (; inFlight > 0; inFlight--) {
+                try { done.take(); } catch (InterruptedException e) { Thread.currentThread().interrupt(); break; }
+            }
+        }
+    }
+
+    private Rendered render(Long orderId) {
+        InvoiceStore.StoredInvoice stored = store.find(orderId).orElse(null);
+        if (stored != null) return new Rendered(orderId, stored.file(), null);
+        InvoiceService.Invoice invoice = invoices.get(orderId);
+        if (invoice.stored() != null) return new Rendered(orderId, invoice.stored().file(), null);
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        invoices.write(invoice.unsettled(), baos);
+        return new Rendered(orderId, null, baos.toByteArray());
+    }
+
+    private Rendered take(CompletionService<Rendered> done) throws InterruptedException, IOException {
+        try {
+            return done.take().get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof UncheckedIOException io) throw io.getCause();
+            throw new IOException("Failed to render invoice", e.getCause());
+        }
+    }
+
+    private void write(ZipOutputStream zip, Rendered r) throws IOException {
+        zip.putNextEntry(new ZipEntry("invoice-" + r.orderId() + ".pdf"));
+        if (r.file() != null) Files.copy(r.file(), zip); else zip.write(r.bytes());
+        zip.closeEntry();
+    }
+
+    @PreDestroy
+    public void shutdown() { executor.close(); }
+}
@@ -0,0 +1,149 @@
+package com.minimart.service;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Bounded read-through cache for reference data that changes rarely. Entries expire {@code ttl} after they were
+ * loaded and the least recently used entry goes once {@code maxEntries} are held. Writers call {@link #invalidate}
+ * for what they changed; a load that was running when an invalidation happened is not stored, so it cannot put the
+ * old state back. Other instances see no invalidation, so the TTL bounds how stale their entries get.
+ * Cached values are shared between threads and must not be modified.
+ */
+public class EntityCache<K, V> {
+    private final String name;
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final LinkedHashMap<K, Entry<V>> entries;
+    // Bumped by every invalidation; loads that started under an older generation are not stored. Guarded by entries.
+    private long generation;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public EntityCache(String name, int maxEntries, Duration ttl) {
+        this.name = name;
+        this.maxEntries = maxEntries;
+        this.ttlNanos = ttl.toNanos();
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                if (size() <= EntityCache.this.maxEntries) return false;
+                evictions.increment();
+                return true;
+            }
+        };
+    }
+
+    public String name() { return name; }
+
+    /** The cached value, or whatever {@code load} returns for a miss. Null results are returned but not cached. */
+    public V get(K key, Function<K, V> load) {
+        long gen;
+        synchronized (entries) {
+            V cached = lookup(key);
+            if (cached != null) return cached;
+            gen = generation;
+        }
+        V value = load.apply(key);
+        if (value != null) store(Map.of(key, value), gen);
+        return value;
+    }
+
+    /**
+     * Values for all {@code keys} that exist, loading the missing ones with a single call to {@code load}.
+     * Keys absent from both the cache and the loader's result are absent from the returned map.
+     */
+    public Map<K, V> getAll(Collection<K> keys, Function<Set<K>, Map<K, V>> load) {
+        Map<K, V> found = new HashMap<>();
+        Set<K> missing = new LinkedHashSet<>();
+        long gen;
+        synchronized (entries) {
+            for (K key : keys) {
+                V cached = lookup(key);
+                if (cached != null) found.put(key, cached); else missing.add(key);
+            }
+            gen = generation;
+        }
+        if (missing.isEmpty()) return found;
+        Map<K, V> loaded = load.apply(missing);
+        store(loaded, gen);
+        found.putAll(loaded);
+        return found;
+    }
+
+    /**
+     * Drops the entry now and, when called inside a transaction, again once it completes, so a load that reads the
+     * old row before the change commits is not served afterwards.
+     */
+    public void invalidate(K key) {
+        remove(key);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) { remove(key); }
+            });
+        }
+    }
+
+    public void clear() {
+        synchronized (entries) {
+            invalidations.add(entries.size());
+            entries.clear();
+            generation++;
+        }
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> res = new LinkedHashMap<>();
+        synchronized (entries) { res.put("size", entries.size()); }
+        res.put("maxEntries", maxEntries);
+        long h = hits.sum(), m = misses.sum();
+        res.put("hits", h);
+        res.put("misses", m);
+        res.put("hitRatio", h + m == 0 ? 0.0 : (double) h / (h + m));
+        res.put("expirations", expirations.sum());
+        res.put("invalidations", invalidations.sum());
+        res.put("evictions", evictions.sum());
+        return res;
+    }
+
+    // Callers hold the lock.
+    private V lookup(K key) {
+        Entry<V> e = entries.get(key);
+        if (e != null && System.nanoTime() - e.expiresAt < 0) {
+            hits.increment();
+            return e.value;
+        }
+        if (e != null) {
+            entries.remove(key);
+            expirations.increment();
+        }
+        misses.increment();
+        return null;
+    }
+
+    private void store(Map<K, V> values, long gen) {
+        long expiresAt = System.nanoTime() + ttlNanos;
+        synchronized (entries) {
+            if (gen != generation) return;
+            values.forEach((k, v) -> entries.put(k, new Entry<>(v, expiresAt)));
+        }
+    }
+
+    private void remove(K key) {
+        synchronized (entries) {
+            if (entries.remove(key) != null) invalidations.increment();
+            generation++;
+        }
+    }
+
+    private record Entry<V>(V value, long expiresAt) {}
+}
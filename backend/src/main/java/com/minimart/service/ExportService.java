@@ -0,0 +1,163 @@
+package com.minimart.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.minimart.model.Customer;
+import com.minimart.model.Product;
+import com.minimart.repository.CustomerRepository;
+import com.minimart.repository.OrderRepository;
+import com.minimart.repository.OrderRepository.OrderLineRow;
+import com.minimart.repository.ProductRepository;
+import jakarta.persistence.EntityManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+/**
+ * Full-table exports written straight from a forward-only cursor. Entities are detached as soon as they are
+ * written and order lines are read as flat projections, so heap use does not grow with the size of the export.
+ */
+@Service
+public class ExportService {
+    public enum Format { NDJSON, CSV }
+
+    private final ProductRepository products;
+    private final CustomerRepository customers;
+    private final OrderRepository orders;
+    private final ObjectMapper mapper;
+    private final EntityManager em;
+
+    public ExportService(ProductRepository products, CustomerRepository customers, OrderRepository orders,
+                         ObjectMapper mapper, EntityManager em) {
+        this.products = products; this.customers = customers; this.orders = orders; this.mapper = mapper; this.em = em;
+    }
+
+    @Transactional(readOnly = true)
+    public void products(Format format, OutputStream out) throws IOException {
+        try (Stream<Product> rows = products.streamAll()) {
+            if (format == Format.NDJSON) { ndjson(rows, out); return; }
+            Writer w = writer(out);
+            csvRow(w, "id", "sku", "name", "price", "stock", "category", "supplier", "createdAt", "updatedAt");
+            for (Iterator<Product> it = rows.iterator(); it.hasNext(); ) {
+                Product p = it.next();
+                csvRow(w, p.getId(), p.getSku(), p.getName(), p.getPrice(), p.getStock(), p.getCategory(),
+                        p.getSupplier(), p.getCreatedAt(), p.getUpdatedAt());
+                em.detach(p);
+            }
+            w.flush();
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public void customers(Format format, OutputStream out) throws IOException {
+        try (Stream<Customer> rows = customers.streamAll()) {
+            if (format == Format.NDJSON) { ndjson(rows, out); return; }
+            Writer w = writer(out);
+            csvRow(w, "id", "name", "email", "phone", "createdAt", "updatedAt");
+            for (Iterator<Customer> it = rows.iterator(); it.hasNext(); ) {
+                Customer c = it.next();
+                csvRow(w, c.getId(), c.getName(), c.getEmail(), c.getPhone(), c.getCreatedAt(), c.getUpdatedAt());
+                em.detach(c);
+            }
+            w.flush();
+        }
+    }
+
+    /** NDJSON emits one object per order with its lines nested; CSV emits one row per order line. */
+    @Transactional(readOnly = true)
+    public void orders(Format format, OutputStream out) throws IOException {
+        try (Stream<OrderLineRow> rows = orders.streamLines()) {
+            if (format == Format.CSV) {
+                Writer w = writer(out);
+                csvRow(w, "orderId", "createdAt", "status", "totalAmount", "customerId", "customerName",
+                        "productId", "sku", "productName", "quantity", "unitPrice", "subTotal");
+                for (Iterator<OrderLineRow> it = rows.iterator(); it.hasNext(); ) {
+                    OrderLineRow r = it.next();
+                    csvRow(w, r.getOrderId(), r.getCreatedAt(), r.getStatus(), r.getTotalAmount(), r.getCustomerId(),
+                            r.getCustomerName(), r.getProductId(), r.getSku(), r.getProductName(), r.getQuantity(),
+                            r.getUnitPrice(), r.getSubTotal());
+                }
+                w.flush();
+                return;
+            }
+            JsonGenerator g = mapper.getFactory().createGenerator(out);
+            Long current = null;
+            for (Iterator<OrderLineRow> it = rows.iterator(); it.hasNext(); ) {
+                OrderLineRow r = it.next();
+                if (!Objects.equals(current, r.getOrderId())) {
+                    if (current != null) endOrder(g);
+                    current = r.getOrderId();
+                    g.writeStartObject();
+                    g.writeNumberField("id", r.getOrderId());
+                    g.writeStringField("createdAt", String.valueOf(r.getCreatedAt()));
+                    g.writeStringField("status", String.valueOf(r.getStatus()));
+                    g.writeNumberField("totalAmount", r.getTotalAmount());
+                    g.writeObjectFieldStart("customer");
+                    g.writeNumberField("id", r.getCustomerId());
+                    g.writeStringField("name", r.getCustomerName());
+                    g.writeEndObject();
+                    g.writeArrayFieldStart("items");
+                }
+                if (r.getProductId() != null) {
+                    g.writeStartObject();
+                    g.writeNumberField("productId", r.getProductId());
+                    g.writeStringField("sku", r.getSku());
+                    g.writeStringField("name", r.getProductName());
+                    g.writeNumberField("quantity", r.getQuantity());
+                    g.writeNumberField("unitPrice", r.getUnitPrice());
+                    g.writeNumberField("subTotal", r.getSubTotal());
+                    g.writeEndObject();
+                }
+            }
+            if (current != null) endOrder(g);
+            g.flush();
+        }
+    }
+
+    private void endOrder(JsonGenerator g) throws IOException {
+        g.writeEndArray();
+        g.writeEndObject();
+        g.writeRaw('\n');
+    }
+
+    private <T> void ndjson(Stream<T> rows, OutputStream out) throws IOException {
+        SequenceWriter w = mapper.writer()
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                .withRootValueSeparator("\n")
+                .writeValues(out);
+        for (Iterator<T> it = rows.iterator(); it.hasNext(); ) {
+            T row = it.next();
+            w.write(row);
+            em.detach(row);
+        }
+        w.flush();
+        out.write('\n');
+    }
+
+    private Writer writer(OutputStream out) {
+        return new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+    }
+
+    private void csvRow(Writer w, Object... values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) w.write(',');
+            if (values[i] == null) continue;
+            String v = values[i].toString();
+            if (v.indexOf(',') >= 0 || v.indexOf('"') >= 0 || v.indexOf('\n') >= 0 || v.indexOf('\r') >= 0) {
+                w.write('"');
+                w.write(v.replace("\"", "\"\""));
+                w.write('"');
+            } else {
+                w.write(v);
+            }
+        }
+        w.write("\r\n");
+    }
+}
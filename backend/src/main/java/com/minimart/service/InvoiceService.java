@@ -0,0 +1,68 @@
+package com.minimart.service;
+
+import com.minimart.dto.OrderView;
+import com.minimart.model.OrderStatus;
+import org.springframework.stereotype.Service;
+
+import java.io.OutputStream;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Serves invoices from the {@link InvoiceStore}. A PAID order's invoice never changes, so it is rendered once and
+ * every later download is a file lookup without touching the database. Other orders are streamed on each request.
+ */
+@Service
+public class InvoiceService {
+    private final OrderService orders;
+    private final PdfService pdf;
+    private final InvoiceStore store;
+    private final Map<Long, CompletableFuture<Invoice>> rendering = new ConcurrentHashMap<>();
+
+    public InvoiceService(OrderService orders, PdfService pdf, InvoiceStore store) {
+        this.orders = orders; this.pdf = pdf; this.store = store;
+    }
+
+    /** Either a stored file or, for an order that is not final yet, the order to render on the fly. */
+    public record Invoice(InvoiceStore.StoredInvoice stored, OrderView unsettled) {}
+
+    public Invoice get(Long orderId) {
+        InvoiceStore.StoredInvoice stored = store.find(orderId).orElse(null);
+        if (stored != null) return new Invoice(stored, null);
+
+        // Concurrent first downloads share one render so the order ends up with a single stored hash.
+        CompletableFuture<Invoice> mine = new CompletableFuture<>();
+        CompletableFuture<Invoice> running = rendering.putIfAbsent(orderId, mine);
+        if (running != null) {
+            try {
+                return running.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException r ? r : e;
+            }
+        }
+        try {
+            Invoice invoice = render(orderId);
+            mine.complete(invoice);
+            return invoice;
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            rendering.remove(orderId, mine);
+        }
+    }
+
+    private Invoice render(Long orderId) {
+        InvoiceStore.StoredInvoice stored = store.find(orderId).orElse(null);
+        if (stored != null) return new Invoice(stored, null);
+        OrderView order = orders.get(orderId);
+        if (order.status() != OrderStatus.PAID) return new Invoice(null, order);
+        return new Invoice(store.store(orderId, out -> pdf.orderInvoice(order, out)), null);
+    }
+
+    public void write(OrderView order, OutputStream out) {
+        pdf.orderInvoice(order, out);
+    }
+}
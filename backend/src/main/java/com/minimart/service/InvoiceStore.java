@@ -0,0 +1,103 @@
+package com.minimart.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * Content-addressed invoice files on the local filesystem. PDFs live under {@code objects/<hh>/<sha256>.pdf};
+ * {@code refs/<orderId / 1000>/<orderId>} holds the hash of an order's invoice. Both are written to a temp file and
+ * moved into place atomically, so readers never see a partial file.
+ */
+@Component
+public class InvoiceStore {
+    private final Path objects;
+    private final Path refs;
+    private final Path tmp;
+
+    public record StoredInvoice(Path file, String hash, long size) {}
+
+    public InvoiceStore(@Value("${app.invoices.dir:${java.io.tmpdir}/minimart-invoices}") Path root) throws IOException {
+        this.objects = Files.createDirectories(root.resolve("objects"));
+        this.refs = Files.createDirectories(root.resolve("refs"));
+        this.tmp = Files.createDirectories(root.resolve("tmp"));
+    }
+
+    public Optional<StoredInvoice> find(Long orderId) {
+        Path ref = refPath(orderId);
+        try {
+            String hash = Files.readString(ref, StandardCharsets.US_ASCII).trim();
+            Path file = objectPath(hash);
+            return Optional.of(new StoredInvoice(file, hash, Files.size(file)));
+        } catch (NoSuchFileException e) {
+            return Optional.empty();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /** Streams the PDF into a temp file while hashing it, then files it under its hash. */
+    public StoredInvoice store(Long orderId, Consumer<OutputStream> writer) {
+        try {
+            Path temp = Files.createTempFile(tmp, "inv", ".pdf");
+            String hash;
+            Path file;
+            try {
+                MessageDigest digest = sha256();
+                try (OutputStream out = new DigestOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)), digest)) {
+                    writer.accept(out);
+                }
+                hash = HexFormat.of().formatHex(digest.digest());
+                file = objectPath(hash);
+                if (Files.exists(file)) Files.delete(temp); else moveIntoPlace(temp, file);
+            } catch (IOException | RuntimeException e) {
+                // A failed render must not leave its partial PDF behind.
+                Files.deleteIfExists(temp);
+                throw e;
+            }
+            Path ref = Files.createTempFile(tmp, "ref", ".txt");
+            try {
+                moveIntoPlace(Files.writeString(ref, hash, StandardCharsets.US_ASCII), refPath(orderId));
+            } catch (IOException | RuntimeException e) {
+                Files.deleteIfExists(ref);
+                throw e;
+            }
+            return new StoredInvoice(file, hash, Files.size(file));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void moveIntoPlace(Path source, Path target) throws IOException {
+        Files.createDirectories(target.getParent());
+        Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private Path objectPath(String hash) {
+        return objects.resolve(hash.substring(0, 2)).resolve(hash + ".pdf");
+    }
+
+    private Path refPath(Long orderId) {
+        return refs.resolve(Long.toString(orderId / 1000)).resolve(Long.toString(orderId));
+    }
+}
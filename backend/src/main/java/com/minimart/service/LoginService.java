@@ -0,0 +1,113 @@
+package com.minimart.service;
+
+import com.minimart.dto.LoginResponse;
+import com.minimart.model.User;
+import com.minimart.repository.UserRepository;
+import com.minimart.security.JwtUtil;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.DisabledException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * Password checks run on a dedicated pool sized to the cores, so a login storm queues here instead of tying up
+ * request threads, and is turned away once {@code app.auth.login.queue-capacity} logins are waiting. Each login
+ * looks the user up once; hashes weaker than the configured BCrypt cost are replaced on the next successful login.
+ */
+@Service
+public class LoginService {
+    private final UserRepository userRepo;
+    private final PasswordEncoder encoder;
+    private final JwtUtil jwt;
+    private final ThreadPoolExecutor executor;
+    // Checked against when the email is unknown, so the response time does not reveal which accounts exist.
+    private final String unknownUserHash;
+    private final AtomicInteger threads = new AtomicInteger();
+
+    private final LongAdder attempts = new LongAdder();
+    private final LongAdder succeeded = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder rehashed = new LongAdder();
+    private final LongAdder hashNanos = new LongAdder();
+
+    public LoginService(UserRepository userRepo, PasswordEncoder encoder, JwtUtil jwt,
+                        @Value("${app.auth.login.workers:0}") int workers,
+                        @Value("${app.auth.login.queue-capacity:256}") int queueCapacity) {
+        this.userRepo = userRepo; this.encoder = encoder; this.jwt = jwt;
+        int n = workers > 0 ? workers : Runtime.getRuntime().availableProcessors();
+        this.executor = new ThreadPoolExecutor(n, n, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(queueCapacity),
+                r -> {
+                    Thread t = new Thread(r, "login-" + threads.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
+        this.unknownUserHash = encoder.encode("unknown-user");
+    }
+
+    /**
+     * Completes with the login response, or exceptionally with an {@code AuthenticationException} for bad
+     * credentials or a disabled account.
+     *
+     * @throws RejectedExecutionException if too many logins are already waiting
+     */
+    public CompletableFuture<LoginResponse> login(String email, String password) {
+        attempts.increment();
+        try {
+            return CompletableFuture.supplyAsync(() -> authenticate(email, password), executor);
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new RejectedExecutionException("Too many logins in progress, try again shortly");
+        }
+    }
+
+    private LoginResponse authenticate(String email, String password) {
+        User user = userRepo.findByEmail(email).orElse(null);
+        long start = System.nanoTime();
+        boolean matches = encoder.matches(password, user != null ? user.getPassword() : unknownUserHash);
+        hashNanos.add(System.nanoTime() - start);
+        if (user == null || !matches) {
+            failed.increment();
+            throw new BadCredentialsException("Invalid email or password");
+        }
+        if (!user.isEnabled()) {
+            failed.increment();
+            throw new DisabledException("Account is disabled");
+        }
+        if (encoder.upgradeEncoding(user.getPassword())) {
+            userRepo.updatePassword(user.getId(), encoder.encode(password));
+            rehashed.increment();
+        }
+        Set<String> roles = user.getRoles().stream().map(Enum::name).collect(Collectors.toSet());
+        String token = jwt.generate(user.getEmail(), Map.of("roles", roles));
+        succeeded.increment();
+        return new LoginResponse(token, user.getId(), user.getEmail(), user.getFullName(), roles);
+    }
+
+    public Map<String, Object> stats() {
+        long checks = succeeded.sum() + failed.sum();
+        Map<String, Object> s = new LinkedHashMap<>();
+        s.put("attempts", attempts.sum());
+        s.put("succeeded", succeeded.sum());
+        s.put("failed", failed.sum());
+        s.put("rejected", rejected.sum());
+        s.put("rehashed", rehashed.sum());
+        s.put("avgHashMs", checks == 0 ? 0.0 : hashNanos.sum() / 1e6 / checks);
+        s.put("active", executor.getActiveCount());
+        s.put("queued", executor.getQueue().size());
+        return s;
+    }
+
+    @PreDestroy
+    public void shutdown() { executor.shutdownNow(); }
+}
@@ -0,0 +1,41 @@
+package com.minimart.service;
+
+import com.minimart.repository.ProductRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.LockSupport;
+
+/** Compare-and-set on {@code Product.version}, re-reading and retrying with jittered backoff on conflict. */
+@Component
+@ConditionalOnProperty(name = "app.stock.strategy", havingValue = "optimistic")
+public class OptimisticStockReservation implements StockReservation {
+    private final ProductRepository productRepo;
+    private final int maxRetries;
+
+    public OptimisticStockReservation(ProductRepository productRepo,
+                                      @Value("${app.stock.optimistic.max-retries:10}") int maxRetries) {
+        this.productRepo = productRepo; this.maxRetries = maxRetries;
+    }
+
+    @Override
+    public boolean reserve(Map<Long, Integer> quantities) {
+        for (Map.Entry<Long, Integer> e : quantities.entrySet()) {
+            if (!reserveOne(e.getKey(), e.getValue())) return false;
+        }
+        return true;
+    }
+
+    private boolean reserveOne(Long productId, int quantity) {
+        for (int attempt = 0; attempt <= maxRetries; attempt++) {
+            ProductRepository.StockSnapshot s = productRepo.findStockById(productId).orElseThrow();
+            if (s.getStock() < quantity) return false;
+            if (productRepo.decrementStockIfVersion(productId, quantity, s.getVersion()) == 1) return true;
+            LockSupport.parkNanos(ThreadLocalRandom.current().nextLong(50_000, 200_000L << Math.min(attempt, 5)));
+        }
+        throw new RuntimeException("Too much contention reserving stock for product " + productId);
+    }
+}
@@ -0,0 +1,172 @@
+package com.minimart.service;
+
+import com.minimart.dto.CreateOrderRequest;
+import com.minimart.dto.OrderBatchResult;
+import com.minimart.model.*;
+import com.minimart.repository.CustomerRepository;
+import com.minimart.repository.OrderRepository;
+import com.minimart.repository.ProductRepository;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Ingests many orders at once, e.g. the sales a till queued while offline. Orders are taken in chunks of
+ * {@code app.orders.batch.chunk-size}, each in one transaction: one select for the chunk's customers, one for its
+ * products, one stock reservation for the summed quantities and one JDBC batch each for orders and lines; one
+ * {@link OrdersPlacedEvent} then rolls the chunk up as it commits. An order that fails validation is reported and left out.
+ * Should the chunk still fail, e.g. because a concurrent checkout took the last units or a row breaks a constraint
+ * the validation does not check, the chunk is rolled back and its orders are replayed one by one through
+ * {@link OrderService#create}, so only the orders that are actually at fault fail.
+ */
+@Service
+public class OrderBatchService {
+    private final OrderService orders;
+    private final OrderRepository orderRepo;
+    private final CustomerRepository customerRepo;
+    private final ProductRepository productRepo;
+    private final StockReservation stock;
+    private final ApplicationEventPublisher events;
+    private final TransactionTemplate tx;
+    private final int chunkSize;
+    private final int maxOrders;
+
+    public OrderBatchService(OrderService orders, OrderRepository orderRepo, CustomerRepository customerRepo,
+                             ProductRepository productRepo, StockReservation stock, ApplicationEventPublisher events,
+                             PlatformTransactionManager txManager,
+                             @Value("${app.orders.batch.chunk-size:100}") int chunkSize,
+                             @Value("${app.orders.batch.max-orders:1000}") int maxOrders) {
+        this.orders = orders; this.orderRepo = orderRepo; this.customerRepo = customerRepo;
+        this.productRepo = productRepo; this.stock = stock; this.events = events;
+        this.tx = new TransactionTemplate(txManager);
+        this.chunkSize = chunkSize; this.maxOrders = maxOrders;
+    }
+
+    private record Accepted(int index, Order order, List<OrderItem> lines, Map<Long, Integer> quantities) {}
+
+    /** One result per request, in request order. */
+    @Timed(value = "minimart.orders.batch", description = "Batch order ingestion")
+    public List<OrderBatchResult> create(List<CreateOrderRequest> requests) {
+        if (requests.size() > maxOrders) throw new IllegalArgumentException("At most " + maxOrders + " orders per batch");
+        OrderBatchResult[] results = new OrderBatchResult[requests.size()];
+        for (int from = 0; from < requests.size(); from += chunkSize) {
+            createChunk(requests, from, Math.min(from + chunkSize, requests.size()), results);
+        }
+        return Arrays.asList(results);
+    }
+
+    private void createChunk(List<CreateOrderRequest> requests, int from, int to, OrderBatchResult[] results) {
+        List<Accepted> accepted = new ArrayList<>();
+        List<Long> ids;
+        try {
+            ids = tx.execute(s -> {
+                prepare(requests, from, to, results, accepted);
+                if (accepted.isEmpty()) return List.of();
+                Map<Long, Integer> total = new HashMap<>();
+                for (Accepted a : accepted) a.quantities().forEach((id, qty) -> total.merge(id, qty, Integer::sum));
+                if (!stock.reserve(total)) {
+                    s.setRollbackOnly();
+                    return null;
+                }
+                return store(accepted);
+            });
+        } catch (RuntimeException e) {
+            // Rolled back; replaying each order on its own reports the error against the orders that cause it.
+            ids = null;
+        }
+        if (ids == null) {
+            // Orders that failed validation already have their result; the others, accepted or not yet reached, are replayed.
+            for (int index = from; index < to; index++) {
+                if (results[index] == null) results[index] = replay(index, requests.get(index));
+            }
+            return;
+        }
+        for (int n = 0; n < accepted.size(); n++) {
+            Accepted a = accepted.get(n);
+            results[a.index()] = OrderBatchResult.created(a.index(), ids.get(n), a.order().getTotalAmount());
+        }
+    }
+
+    /**
+     * Validates and prices the chunk's orders. Stock is checked against the loaded rows, orders in request order,
+     * so an order the snapshot cannot serve fails here instead of forcing a replay of the whole chunk.
+     */
+    private void prepare(List<CreateOrderRequest> requests, int from, int to, OrderBatchResult[] results,
+                         List<Accepted> accepted) {
+        Set<Long> customerIds = new HashSet<>();
+        Set<Long> productIds = new HashSet<>();
+        for (CreateOrderRequest r : requests.subList(from, to)) {
+            if (r == null) continue;
+            if (r.getCustomerId() != null) customerIds.add(r.getCustomerId());
+            if (r.getItems() != null) {
+                for (CreateOrderRequest.Item i : r.getItems()) if (i.getProductId() != null) productIds.add(i.getProductId());
+            }
+        }
+        Map<Long, Customer> customers = customerRepo.findAllById(customerIds).stream()
+                .collect(Collectors.toMap(Customer::getId, Function.identity()));
+        Map<Long, Product> products = productRepo.findAllById(productIds).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+        Map<Long, CatalogItem> catalog = products.values().stream()
+                .collect(Collectors.toMap(Product::getId, CatalogItem::of));
+        Map<Long, Integer> remaining = new HashMap<>();
+        products.values().forEach(p -> remaining.put(p.getId(), p.getStock()));
+
+        for (int index = from; index < to; index++) {
+            CreateOrderRequest r = requests.get(index);
+            try {
+                if (r == null || r.getCustomerId() == null || r.getItems() == null) {
+                    throw new IllegalArgumentException("customerId and items are required");
+                }
+                Customer customer = customers.get(r.getCustomerId());
+                if (customer == null) throw new NoSuchElementException("Customer not found");
+                Map<Long, Integer> quantities = OrderService.quantitiesByProduct(r.getItems());
+                for (Map.Entry<Long, Integer> q : quantities.entrySet()) {
+                    Product p = products.get(q.getKey());
+                    if (p == null) throw new NoSuchElementException("Product not found");
+                    if (remaining.get(q.getKey()) < q.getValue()) throw new RuntimeException("Insufficient stock for " + p.getName());
+                }
+                quantities.forEach((id, qty) -> remaining.merge(id, -qty, Integer::sum));
+
+                Order order = new Order(customer);
+                order.prePersist();
+                List<OrderItem> lines = new ArrayList<>(r.getItems().size());
+                order.setTotalAmount(OrderService.priceLines(order, r.getItems(), catalog, products::get, lines));
+                order.setStatus(OrderStatus.PAID);
+                accepted.add(new Accepted(index, order, lines, quantities));
+            } catch (RuntimeException e) {
+                results[index] = OrderBatchResult.failed(index, e.getMessage());
+            }
+        }
+    }
+
+    private List<Long> store(List<Accepted> accepted) {
+        List<Long> ids = orderRepo.insertOrders(accepted.stream().map(Accepted::order).toList());
+        Map<Long, List<OrderItem>> lines = new LinkedHashMap<>();
+        for (int n = 0; n < accepted.size(); n++) lines.put(ids.get(n), accepted.get(n).lines());
+        orderRepo.insertItems(lines);
+        List<OrderPlacedEvent> placed = new ArrayList<>(accepted.size());
+        for (int n = 0; n < accepted.size(); n++) {
+            Order o = accepted.get(n).order();
+            placed.add(OrderService.placedEvent(ids.get(n), o.getCreatedAt(), o.getTotalAmount(), accepted.get(n).lines()));
+        }
+        events.publishEvent(new OrdersPlacedEvent(placed));
+        return ids;
+    }
+
+    private OrderBatchResult replay(int index, CreateOrderRequest request) {
+        try {
+            Order o = orders.create(request);
+            return OrderBatchResult.created(index, o.getId(), o.getTotalAmount());
+        } catch (RuntimeException e) {
+            return OrderBatchResult.failed(index, e.getMessage());
+        }
+    }
+}
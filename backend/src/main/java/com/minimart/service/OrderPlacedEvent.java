@@ -0,0 +1,37 @@
+package com.minimart.service;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * Published by {@link OrderService} inside the order's transaction. Rollups are written just before it commits, in
+ * that transaction; caches are evicted after commit. Batch ingestion publishes these grouped in an
+ * {@link OrdersPlacedEvent} instead.
+ */
+public class OrderPlacedEvent {
+    private final Long orderId;
+    private final Instant createdAt;
+    private final BigDecimal totalAmount;
+    private final Map<Long, Line> lines;
+
+    public static class Line {
+        private final long quantity;
+        private final BigDecimal revenue;
+
+        public Line(long quantity, BigDecimal revenue) { this.quantity = quantity; this.revenue = revenue; }
+
+        public long getQuantity() { return quantity; }
+        public BigDecimal getRevenue() { return revenue; }
+    }
+
+    public OrderPlacedEvent(Long orderId, Instant createdAt, BigDecimal totalAmount, Map<Long, Line> lines) {
+        this.orderId = orderId; this.createdAt = createdAt; this.totalAmount = totalAmount; this.lines = lines;
+    }
+
+    public Long getOrderId() { return orderId; }
+    public Instant getCreatedAt() { return createdAt; }
+    public BigDecimal getTotalAmount() { return totalAmount; }
+    /** Quantity and revenue per product id, with repeated lines for the same product merged. */
+    public Map<Long, Line> getLines() { return lines; }
+}
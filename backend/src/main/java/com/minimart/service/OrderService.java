@@ -1,46 +1,189 @@
 package com.minimart.service;
 
 import com.minimart.dto.CreateOrderRequest;
+import com.minimart.dto.OrderPage;
+import com.minimart.dto.OrderQuery;
+import com.minimart.dto.OrderView;
 import com.minimart.model.*;
 import com.minimart.repository.CustomerRepository;
 import com.minimart.repository.OrderRepository;
 import com.minimart.repository.ProductRepository;
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 public class OrderService {
+    private static final int MAX_PAGE_SIZE = 1000;
+
     private final OrderRepository orderRepo;
     private final CustomerRepository customerRepo;
     private final ProductRepository productRepo;
+    private final StockReservation stock;
+    private final EntityManager em;
+    private final ApplicationEventPublisher events;
+    private final EntityCache<Long, Customer> customerCache;
+    private final EntityCache<Long, CatalogItem> productCache;
 
-    public OrderService(OrderRepository orderRepo, CustomerRepository customerRepo, ProductRepository productRepo) {
+    public OrderService(OrderRepository orderRepo, CustomerRepository customerRepo, ProductRepository productRepo,
+                        StockReservation stock, EntityManager em, ApplicationEventPublisher events,
+                        EntityCache<Long, Customer> customerCache, EntityCache<Long, CatalogItem> productCache) {
         this.orderRepo = orderRepo; this.customerRepo = customerRepo; this.productRepo = productRepo;
+        this.stock = stock; this.em = em; this.events = events;
+        this.customerCache = customerCache; this.productCache = productCache;
     }
 
+    /**
+     * Set-based checkout: the customer and the basket's products come from the entity caches (one select each on a
+     * miss), then one stock reservation for the whole basket, one insert for the order and one batched insert for
+     * its lines, regardless of the number of lines. Products are cached as catalog items only; stock is checked and
+     * taken by the reservation, and the lines reference the products without loading them.
+     */
+    @Timed(value = "minimart.orders.create", description = "Checkout up to the committed order")
     @Transactional
     public Order create(CreateOrderRequest req) {
-        Customer customer = customerRepo.findById(req.getCustomerId()).orElseThrow();
+        Customer customer = Optional.ofNullable(customerCache.get(req.getCustomerId(),
+                id -> customerRepo.findById(id).orElse(null))).orElseThrow();
+        Map<Long, Integer> quantities = quantitiesByProduct(req.getItems());
+        Map<Long, CatalogItem> catalog = productCache.getAll(quantities.keySet(), ids -> productRepo.findAllById(ids).stream()
+                .collect(Collectors.toMap(Product::getId, CatalogItem::of)));
+        if (catalog.size() != quantities.size()) throw new NoSuchElementException("Product not found");
+
         Order order = new Order(customer);
-        BigDecimal total = BigDecimal.ZERO;
+        List<OrderItem> lines = new ArrayList<>(req.getItems().size());
+        BigDecimal total = priceLines(order, req.getItems(), catalog, id -> em.getReference(Product.class, id), lines);
 
-        for (CreateOrderRequest.Item i : req.getItems()) {
-            Product p = productRepo.findById(i.getProductId()).orElseThrow();
-            if (p.getStock() < i.getQuantity()) throw new RuntimeException("Insufficient stock for " + p.getName());
-            BigDecimal unit = p.getPrice();
-            BigDecimal sub = unit.multiply(BigDecimal.valueOf(i.getQuantity()));
-            OrderItem oi = new OrderItem(p, order, i.getQuantity(), unit, sub);
-            order.getItems().add(oi);
-            p.setStock(p.getStock() - i.getQuantity());
-            productRepo.save(p);
-            total = total.add(sub);
+        if (!stock.reserve(quantities)) {
+            // Cached stock is stale; read the current levels to name the product that is short.
+            String name = productRepo.findAllById(quantities.keySet()).stream()
+                    .filter(p -> p.getStock() < quantities.get(p.getId()))
+                    .map(Product::getName)
+                    .findFirst().orElse("one or more products");
+            throw new RuntimeException("Insufficient stock for " + name);
         }
+
         order.setTotalAmount(total);
         order.setStatus(OrderStatus.PAID);
-        return orderRepo.save(order);
+        // Sequence ids defer the insert to flush; the lines below reference the row, so flush now.
+        orderRepo.saveAndFlush(order);
+        orderRepo.insertItems(order.getId(), lines);
+        events.publishEvent(placedEvent(order.getId(), order.getCreatedAt(), total, lines));
+
+        // Lines were written over JDBC; detach so the cascade does not insert them a second time on flush.
+        em.detach(order);
+        order.setItems(lines);
+        return order;
+    }
+
+    /**
+     * Order history, newest first. The cursor carries the last row's creation time and id, so every page is a range
+     * scan of {@code limit + 1} rows on the index matching the filter: {@code (created_at, id)}, or the
+     * {@code (customer_id, ...)} / {@code (status, ...)} variants, with "contains product" checked per order on
+     * {@code order_items (product_id, order_id)}.
+     */
+    public OrderPage page(OrderQuery q) {
+        int limit = Math.max(1, Math.min(q.getLimit(), MAX_PAGE_SIZE));
+        Sort sort = Sort.by(Sort.Direction.DESC, "createdAt").and(Sort.by(Sort.Direction.DESC, "id"));
+        Specification<Order> spec = filters(q).and(before(q.getCursor()));
+
+        List<Order> rows = orderRepo.findBy(spec, f -> f.sortBy(sort).limit(limit + 1).all());
+        List<OrderPage.Summary> items = new ArrayList<>(Math.min(rows.size(), limit));
+        for (int i = 0; i < rows.size() && i < limit; i++) items.add(OrderPage.Summary.of(rows.get(i)));
+        return new OrderPage(items, rows.size() <= limit ? null : encodeCursor(rows.get(limit - 1)));
+    }
+
+    private Specification<Order> filters(OrderQuery q) {
+        return (root, query, cb) -> {
+            // The customer comes in the same select; it is many-to-one, so the row count and limit are unaffected.
+            if (query.getResultType() != Long.class) root.fetch("customer");
+            List<Predicate> ps = new ArrayList<>();
+            if (q.getCustomerId() != null) ps.add(cb.equal(root.get("customer").get("id"), q.getCustomerId()));
+            if (q.getStatus() != null) ps.add(cb.equal(root.get("status"), q.getStatus()));
+            if (q.getFrom() != null) {
+                ps.add(cb.greaterThanOrEqualTo(root.get("createdAt"), q.getFrom().atStartOfDay(ZoneId.systemDefault()).toInstant()));
+            }
+            if (q.getTo() != null) {
+                ps.add(cb.lessThan(root.get("createdAt"), q.getTo().plusDays(1).atStartOfDay(ZoneId.systemDefault()).toInstant()));
+            }
+            if (q.getProductId() != null) {
+                Subquery<Integer> line = query.subquery(Integer.class);
+                Root<OrderItem> i = line.from(OrderItem.class);
+                line.select(cb.literal(1))
+                        .where(cb.equal(i.get("order"), root), cb.equal(i.get("product").get("id"), q.getProductId()));
+                ps.add(cb.exists(line));
+            }
+            return cb.and(ps.toArray(new Predicate[0]));
+        };
+    }
+
+    private Specification<Order> before(String cursor) {
+        if (cursor == null || cursor.isBlank()) return (root, query, cb) -> cb.conjunction();
+        String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        int split = raw.indexOf('|');
+        if (split < 0) throw new IllegalArgumentException("Malformed cursor");
+        Instant createdAt = Instant.parse(raw.substring(0, split));
+        Long lastId = Long.valueOf(raw.substring(split + 1));
+        // The leading createdAt <= bound is redundant but gives the index scan a start key; the OR alone does not.
+        return (root, query, cb) -> cb.and(cb.lessThanOrEqualTo(root.get("createdAt"), createdAt),
+                cb.or(cb.lessThan(root.get("createdAt"), createdAt),
+                        cb.and(cb.equal(root.get("createdAt"), createdAt), cb.lessThan(root.get("id"), lastId))));
     }
 
-    public Order get(Long id) { return orderRepo.findById(id).orElseThrow(); }
+    private String encodeCursor(Order last) {
+        String raw = last.getCreatedAt() + "|" + last.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /** The order with its customer and lines, in one query. */
+    public OrderView get(Long id) { return OrderView.of(orderRepo.findView(id)); }
+
+    static OrderPlacedEvent placedEvent(Long orderId, Instant createdAt, BigDecimal total, List<OrderItem> lines) {
+        Map<Long, OrderPlacedEvent.Line> byProduct = new HashMap<>();
+        for (OrderItem i : lines) {
+            byProduct.merge(i.getProduct().getId(), new OrderPlacedEvent.Line(i.getQuantity(), i.getSubTotal()),
+                    (a, b) -> new OrderPlacedEvent.Line(a.getQuantity() + b.getQuantity(), a.getRevenue().add(b.getRevenue())));
+        }
+        return new OrderPlacedEvent(orderId, createdAt, total, byProduct);
+    }
+
+    /**
+     * Prices every requested line at the product's current catalog price into {@code lines} and returns the order
+     * total; {@code products} supplies the entity each line references.
+     */
+    static BigDecimal priceLines(Order order, List<CreateOrderRequest.Item> items, Map<Long, CatalogItem> catalog,
+                                 Function<Long, Product> products, List<OrderItem> lines) {
+        BigDecimal total = BigDecimal.ZERO;
+        for (CreateOrderRequest.Item i : items) {
+            CatalogItem c = catalog.get(i.getProductId());
+            BigDecimal unit = c.price();
+            BigDecimal sub = unit.multiply(BigDecimal.valueOf(i.getQuantity()));
+            lines.add(new OrderItem(c, products.apply(c.id()), order, i.getQuantity(), unit, sub));
+            total = total.add(sub);
+        }
+        return total;
+    }
+
+    static Map<Long, Integer> quantitiesByProduct(List<CreateOrderRequest.Item> items) {
+        Map<Long, Integer> quantities = new LinkedHashMap<>();
+        for (CreateOrderRequest.Item i : items) {
+            if (i.getQuantity() == null || i.getQuantity() <= 0) throw new RuntimeException("Invalid quantity for product " + i.getProductId());
+            quantities.merge(i.getProductId(), i.getQuantity(), Integer::sum);
+        }
+        return quantities;
+    }
 }
@@ -0,0 +1,15 @@
+package com.minimart.service;
+
+import java.util.List;
+
+/**
+ * Published by {@link OrderBatchService} once per chunk, inside the chunk's transaction, in place of an
+ * {@link OrderPlacedEvent} per order, so listeners can apply the whole chunk at once.
+ */
+public class OrdersPlacedEvent {
+    private final List<OrderPlacedEvent> orders;
+
+    public OrdersPlacedEvent(List<OrderPlacedEvent> orders) { this.orders = orders; }
+
+    public List<OrderPlacedEvent> getOrders() { return orders; }
+}
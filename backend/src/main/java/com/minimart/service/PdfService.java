@@ -4,34 +4,45 @@ import com.lowagie.text.*;
 import com.lowagie.text.pdf.PdfPCell;
 import com.lowagie.text.pdf.PdfPTable;
 import com.lowagie.text.pdf.PdfWriter;
-import com.minimart.model.Order;
-import com.minimart.model.OrderItem;
+import com.minimart.dto.OrderView;
+import com.minimart.repository.OrderRepository.OrderLineRow;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.stereotype.Service;
 
-import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
 import java.text.NumberFormat;
 import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
+import java.util.Iterator;
 import java.util.Locale;
+import java.util.Map;
 
+/**
+ * Renders PDFs straight into the caller's stream. Fonts and the date formatter are immutable and shared;
+ * {@link NumberFormat} is not thread-safe, so each document clones a prototype once.
+ */
+@Timed(value = "minimart.pdf", description = "PDF rendering")
 @Service
 public class PdfService {
+    private static final Font TITLE = FontFactory.getFont(FontFactory.HELVETICA_BOLD, 18);
+    private static final Font HEADER = FontFactory.getFont(FontFactory.HELVETICA_BOLD, 12);
+    private static final Font TOTAL = FontFactory.getFont(FontFactory.HELVETICA_BOLD, 14);
+    private static final Font SMALL = FontFactory.getFont(FontFactory.HELVETICA, 9);
+    private static final DateTimeFormatter DATE_TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm")
+            .withZone(ZoneId.systemDefault());
+    private static final NumberFormat CURRENCY = NumberFormat.getCurrencyInstance(Locale.US);
+    // Rows of a large table are handed to the writer and released every CHUNK rows.
+    private static final int CHUNK = 500;
 
-    public byte[] orderInvoice(Order order) {
+    public void orderInvoice(OrderView order, OutputStream out) {
         try {
-            ByteArrayOutputStream baos = new ByteArrayOutputStream();
-            Document document = new Document();
-            PdfWriter.getInstance(document, baos);
-            document.open();
-
-            NumberFormat currency = NumberFormat.getCurrencyInstance(Locale.US);
-            DateTimeFormatter fmt = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm")
-                    .withZone(ZoneId.systemDefault());
-
-            document.add(new Paragraph("Minimart - Invoice", FontFactory.getFont(FontFactory.HELVETICA_BOLD, 18)));
-            document.add(new Paragraph("Order ID: " + order.getId()));
-            document.add(new Paragraph("Date: " + fmt.format(order.getCreatedAt())));
-            document.add(new Paragraph("Customer: " + order.getCustomer().getName()));
+            Document document = open(out);
+            NumberFormat currency = currency();
+
+            document.add(new Paragraph("Minimart - Invoice", TITLE));
+            document.add(new Paragraph("Order ID: " + order.id()));
+            document.add(new Paragraph("Date: " + DATE_TIME.format(order.createdAt())));
+            document.add(new Paragraph("Customer: " + order.customer().name()));
             document.add(Chunk.NEWLINE);
 
             PdfPTable table = new PdfPTable(4);
@@ -39,28 +50,104 @@ public class PdfService {
             table.setWidths(new int[]{6, 2, 3, 3});
             addHeader(table, "Product", "Qty", "Unit Price", "Subtotal");
 
-            for (OrderItem item : order.getItems()) {
-                table.addCell(item.getProduct().getName());
-                table.addCell(String.valueOf(item.getQuantity()));
-                table.addCell(currency.format(item.getUnitPrice()));
-                table.addCell(currency.format(item.getSubTotal()));
+            for (OrderView.Line item : order.items()) {
+                table.addCell(item.productName());
+                table.addCell(String.valueOf(item.quantity()));
+                table.addCell(currency.format(item.unitPrice()));
+                table.addCell(currency.format(item.subTotal()));
             }
             document.add(table);
 
             document.add(Chunk.NEWLINE);
-            document.add(new Paragraph("Total: " + currency.format(order.getTotalAmount()),
-                    FontFactory.getFont(FontFactory.HELVETICA_BOLD, 14)));
+            document.add(new Paragraph("Total: " + currency.format(order.totalAmount()), TOTAL));
 
             document.close();
-            return baos.toByteArray();
         } catch (Exception e) {
             throw new RuntimeException("Failed to generate invoice PDF", e);
         }
     }
 
+    public void salesSummary(Map<String, Object> summary, OutputStream out) {
+        try {
+            Document doc = open(out);
+            doc.add(new Paragraph("Minimart - Sales Report", TITLE));
+            doc.add(new Paragraph("From: " + summary.get("from")));
+            doc.add(new Paragraph("To: " + summary.get("to")));
+            doc.add(Chunk.NEWLINE);
+
+            PdfPTable table = new PdfPTable(2);
+            table.setWidthPercentage(60);
+            table.addCell("Total Orders");
+            table.addCell(summary.get("totalOrders").toString());
+            table.addCell("Total Revenue");
+            table.addCell(summary.get("totalRevenue").toString());
+            table.addCell("Top Product");
+            table.addCell(String.valueOf(summary.get("topProduct")));
+            doc.add(table);
+
+            doc.close();
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to generate sales report PDF", e);
+        }
+    }
+
+    /**
+     * Summary followed by every order line. The line table is emitted in chunks as rows arrive, so memory stays
+     * flat however many lines the range holds.
+     */
+    public void salesDetail(Map<String, Object> summary, Iterator<OrderLineRow> lines, OutputStream out) {
+        try {
+            Document doc = open(out);
+            NumberFormat currency = currency();
+            doc.add(new Paragraph("Minimart - Detailed Sales Report", TITLE));
+            doc.add(new Paragraph("From: " + summary.get("from") + "  To: " + summary.get("to")));
+            doc.add(new Paragraph("Total Orders: " + summary.get("totalOrders")
+                    + "  Total Revenue: " + summary.get("totalRevenue")));
+            doc.add(Chunk.NEWLINE);
+
+            PdfPTable table = new PdfPTable(6);
+            table.setWidthPercentage(100);
+            table.setWidths(new int[]{2, 3, 4, 5, 1, 3});
+            table.setHeaderRows(1);
+            table.setComplete(false);
+            addHeader(table, "Order", "Date", "Customer", "Product", "Qty", "Subtotal");
+
+            int rows = 0;
+            while (lines.hasNext()) {
+                OrderLineRow r = lines.next();
+                if (r.getProductId() == null) continue;
+                table.addCell(new Phrase(String.valueOf(r.getOrderId()), SMALL));
+                table.addCell(new Phrase(DATE_TIME.format(r.getCreatedAt()), SMALL));
+                table.addCell(new Phrase(r.getCustomerName(), SMALL));
+                table.addCell(new Phrase(r.getProductName(), SMALL));
+                table.addCell(new Phrase(String.valueOf(r.getQuantity()), SMALL));
+                table.addCell(new Phrase(currency.format(r.getSubTotal()), SMALL));
+                if (++rows % CHUNK == 0) doc.add(table);
+            }
+            table.setComplete(true);
+            doc.add(table);
+
+            doc.close();
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to generate detailed sales report PDF", e);
+        }
+    }
+
+    private Document open(OutputStream out) {
+        Document document = new Document();
+        PdfWriter writer = PdfWriter.getInstance(document, out);
+        writer.setCloseStream(false);
+        document.open();
+        return document;
+    }
+
+    private NumberFormat currency() {
+        return (NumberFormat) CURRENCY.clone();
+    }
+
     private void addHeader(PdfPTable table, String... headers) {
         for (String h : headers) {
-            PdfPCell cell = new PdfPCell(new Phrase(h, FontFactory.getFont(FontFactory.HELVETICA_BOLD, 12)));
+            PdfPCell cell = new PdfPCell(new Phrase(h, HEADER));
             table.addCell(cell);
         }
     }
@@ -0,0 +1,339 @@
+package com.minimart.service;
+
+import com.minimart.model.CatalogItem;
+import com.minimart.model.Product;
+import com.minimart.repository.ProductRepository;
+import com.minimart.repository.ProductRepositoryCustom.Upserted;
+import com.minimart.util.CsvReader;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import java.io.*;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Imports supplier catalogs from CSV, matching rows to products by SKU. The upload is spooled to a temporary file and
+ * read back record by record on a background worker; every {@code app.products.import.chunk-size} valid rows become
+ * one upsert statement, so memory use does not depend on the size of the file. Uploads are limited to
+ * {@code app.products.import.max-bytes} and records to {@code app.products.import.max-record-chars}, which bound the
+ * disk and memory one import can take. Imports run one at a time, since two files touching the same SKUs would only
+ * contend for the same rows, and at most {@code app.products.import.queue-capacity} wait. Progress and the first
+ * {@code app.products.import.max-errors} row errors can be polled while an import runs; finished imports are kept
+ * for {@code app.products.import.retention} and then forgotten.
+ */
+@Service
+public class ProductImportService {
+    public enum Status { QUEUED, RUNNING, DONE, FAILED }
+
+    public record RowError(long line, String sku, String message) {}
+
+    /** The upload is larger than {@code app.products.import.max-bytes}. */
+    public static class TooLargeException extends IllegalArgumentException {
+        TooLargeException(String message) { super(message); }
+    }
+
+    private static final List<String> REQUIRED = List.of("sku", "name", "price");
+    private static final List<String> OPTIONAL = List.of("stock", "category", "supplier");
+    private static final int MAX_TEXT = 255;
+
+    private final ProductRepository products;
+    private final StockReservation stock;
+    private final EntityCache<Long, CatalogItem> cache;
+    private final int chunkSize;
+    private final int maxErrors;
+    private final long maxBytes;
+    private final int maxRecordChars;
+    private final Duration retention;
+    private final ThreadPoolExecutor executor;
+    private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+
+    public ProductImportService(ProductRepository products, StockReservation stock, EntityCache<Long, CatalogItem> cache,
+                                @Value("${app.products.import.chunk-size:1000}") int chunkSize,
+                                @Value("${app.products.import.max-errors:100}") int maxErrors,
+                                @Value("${app.products.import.max-bytes:100MB}") DataSize maxBytes,
+                                @Value("${app.products.import.max-record-chars:65536}") int maxRecordChars,
+                                @Value("${app.products.import.queue-capacity:10}") int queueCapacity,
+                                @Value("${app.products.import.retention:PT1H}") Duration retention) {
+        this.products = products; this.stock = stock; this.cache = cache;
+        this.chunkSize = chunkSize; this.maxErrors = maxErrors; this.retention = retention;
+        this.maxBytes = maxBytes.toBytes(); this.maxRecordChars = maxRecordChars;
+        // Bounded, so a full queue rejects the import atomically instead of after a separate size check.
+        this.executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(queueCapacity), r -> {
+            Thread t = new Thread(r, "product-import");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Spools the CSV and queues its import. The header must name {@code sku}, {@code name} and {@code price}, and may
+     * add {@code stock}, {@code category} and {@code supplier}; other columns are ignored, and optional columns that
+     * are missing are left as they are on existing products. Throws {@link TooLargeException} for an upload over the
+     * size limit and {@link RejectedExecutionException} when the queue is full.
+     */
+    public Job submit(InputStream csv) throws IOException {
+        purgeExpired();
+        // Only spares spooling a file that would be rejected; the bounded queue is what enforces the capacity.
+        if (executor.getQueue().remainingCapacity() == 0) throw new RejectedExecutionException("Import queue is full");
+        Path file = Files.createTempFile("product-import-", ".csv");
+        Job job = null;
+        try {
+            spool(csv, file);
+            job = new Job(UUID.randomUUID().toString(), file, columns(file), Files.size(file));
+            jobs.put(job.id, job);
+            executor.execute(job);
+            return job;
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.id);
+            Files.deleteIfExists(file);
+            throw new RejectedExecutionException("Import queue is full", e);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        }
+    }
+
+    private void spool(InputStream csv, Path file) throws IOException {
+        try (OutputStream out = Files.newOutputStream(file)) {
+            byte[] buf = new byte[8192];
+            long total = 0;
+            for (int n; (n = csv.read(buf)) >= 0; ) {
+                total += n;
+                if (total > maxBytes) throw new TooLargeException("The file is larger than " + maxBytes + " bytes");
+                out.write(buf, 0, n);
+            }
+        }
+    }
+
+    public Optional<Job> get(String id) {
+        return Optional.ofNullable(jobs.get(id));
+    }
+
+    @PreDestroy
+    public void shutdown() { executor.shutdownNow(); }
+
+    private void purgeExpired() {
+        Instant cutoff = Instant.now().minus(retention);
+        jobs.values().removeIf(j -> j.finishedAt != null && j.finishedAt.isBefore(cutoff));
+    }
+
+    /** Column positions by name, from the header record. */
+    private Map<String, Integer> columns(Path file) throws IOException {
+        List<String> header;
+        try (Reader r = reader(Files.newInputStream(file))) {
+            header = new CsvReader(r, maxRecordChars).next();
+        } catch (CsvReader.MalformedException e) {
+            throw new IllegalArgumentException(e.getMessage(), e);
+        }
+        if (header == null) throw new IllegalArgumentException("The file is empty");
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            String name = header.get(i).strip();
+            if (i == 0 && name.startsWith("\uFEFF")) name = name.substring(1);
+            if (REQUIRED.contains(name) || OPTIONAL.contains(name)) {
+                if (columns.putIfAbsent(name, i) != null) throw new IllegalArgumentException("Duplicate column: " + name);
+            }
+        }
+        for (String name : REQUIRED) {
+            if (!columns.containsKey(name)) throw new IllegalArgumentException("Missing column: " + name);
+        }
+        return columns;
+    }
+
+    private static Reader reader(InputStream in) {
+        return new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+    }
+
+    public class Job implements Runnable {
+        private final String id;
+        private final Path file;
+        private final Map<String, Integer> columns;
+        private final int width;
+        private final long bytesTotal;
+        private final Instant submittedAt = Instant.now();
+        private final List<RowError> errors = new CopyOnWriteArrayList<>();
+        private volatile Status status = Status.QUEUED;
+        private volatile long bytesRead;
+        private volatile long rows;
+        private volatile long inserted;
+        private volatile long updated;
+        private volatile long failed;
+        private volatile String error;
+        private volatile Instant finishedAt;
+
+        // Pending rows of the current chunk by SKU, with the line each came from.
+        private final Map<String, Product> chunk = new LinkedHashMap<>();
+        private final Map<String, Long> chunkLines = new HashMap<>();
+
+        Job(String id, Path file, Map<String, Integer> columns, long bytesTotal) {
+            this.id = id; this.file = file; this.columns = columns; this.bytesTotal = bytesTotal;
+            this.width = Collections.max(columns.values()) + 1;
+        }
+
+        @Override
+        public void run() {
+            status = Status.RUNNING;
+            try (CountingInputStream counted = new CountingInputStream(Files.newInputStream(file));
+                 Reader r = reader(counted)) {
+                CsvReader csv = new CsvReader(r, maxRecordChars);
+                csv.next();
+                for (List<String> record; (record = csv.next()) != null; ) {
+                    rows++;
+                    Product p = parse(record, csv.recordLine());
+                    if (p != null) {
+                        // One statement cannot touch a row twice, so a repeated SKU starts a new chunk.
+                        if (chunk.containsKey(p.getSku())) flush();
+                        chunk.put(p.getSku(), p);
+                        chunkLines.put(p.getSku(), csv.recordLine());
+                        if (chunk.size() >= chunkSize) flush();
+                    }
+                    bytesRead = counted.count;
+                }
+                flush();
+                bytesRead = bytesTotal;
+                status = Status.DONE;
+            } catch (IOException | RuntimeException e) {
+                error = e.getMessage();
+                status = Status.FAILED;
+            } finally {
+                finishedAt = Instant.now();
+                try {
+                    Files.deleteIfExists(file);
+                } catch (IOException ignored) {
+                    // Left to the temp directory's own cleanup.
+                }
+            }
+        }
+
+        private Product parse(List<String> record, long line) {
+            if (record.size() < width) {
+                reject(line, null, "Expected at least " + width + " fields, found " + record.size());
+                return null;
+            }
+            String sku = text(record, "sku");
+            String name = text(record, "name");
+            if (sku == null) { reject(line, null, "sku is required"); return null; }
+            if (name == null) { reject(line, sku, "name is required"); return null; }
+            if (sku.length() > MAX_TEXT || name.length() > MAX_TEXT) { reject(line, sku, "sku and name are limited to " + MAX_TEXT + " characters"); return null; }
+
+            BigDecimal price;
+            try {
+                price = new BigDecimal(record.get(columns.get("price")).strip());
+            } catch (NumberFormatException e) {
+                reject(line, sku, "price is not a number"); return null;
+            }
+            if (price.signum() < 0 || price.scale() > 2 || price.precision() - price.scale() > 10) {
+                reject(line, sku, "price must be between 0 and 9999999999.99 with at most 2 decimals"); return null;
+            }
+
+            Integer units = null;
+            if (columns.containsKey("stock")) {
+                try {
+                    units = Integer.valueOf(record.get(columns.get("stock")).strip());
+                } catch (NumberFormatException e) {
+                    reject(line, sku, "stock is not a whole number"); return null;
+                }
+                if (units < 0) { reject(line, sku, "stock must not be negative"); return null; }
+            }
+            String category = text(record, "category"), supplier = text(record, "supplier");
+            if ((category != null && category.length() > MAX_TEXT) || (supplier != null && supplier.length() > MAX_TEXT)) {
+                reject(line, sku, "category and supplier are limited to " + MAX_TEXT + " characters"); return null;
+            }
+            return new Product(name, sku, price, units, category, supplier);
+        }
+
+        private String text(List<String> record, String column) {
+            Integer i = columns.get(column);
+            if (i == null) return null;
+            String v = record.get(i).strip();
+            return v.isEmpty() ? null : v;
+        }
+
+        private void flush() {
+            if (chunk.isEmpty()) return;
+            List<Product> pending = new ArrayList<>(chunk.values());
+            try {
+                applied(products.upsertBySku(pending, columns.keySet()));
+            } catch (DataAccessException e) {
+                // Validation should have caught it; retry row by row so only the offending rows fail.
+                for (Product p : pending) {
+                    try {
+                        applied(products.upsertBySku(List.of(p), columns.keySet()));
+                    } catch (DataAccessException rowError) {
+                        reject(chunkLines.get(p.getSku()), p.getSku(), NestedExceptionUtils.getMostSpecificCause(rowError).getMessage());
+                    }
+                }
+            }
+            chunk.clear();
+            chunkLines.clear();
+        }
+
+        private void applied(List<Upserted> rows) {
+            for (Upserted u : rows) {
+                if (u.inserted()) {
+                    inserted++;
+                } else {
+                    updated++;
+                    cache.invalidate(u.id());
+                    if (columns.containsKey("stock")) stock.invalidate(u.id());
+                }
+            }
+        }
+
+        private void reject(long line, String sku, String message) {
+            failed++;
+            if (errors.size() < maxErrors) errors.add(new RowError(line, sku, message));
+        }
+
+        public String getId() { return id; }
+        public Status getStatus() { return status; }
+
+        public Map<String, Object> describe() {
+            Map<String, Object> res = new LinkedHashMap<>();
+            res.put("id", id);
+            res.put("status", status);
+            res.put("submittedAt", submittedAt.toString());
+            if (finishedAt != null) res.put("finishedAt", finishedAt.toString());
+            res.put("bytesRead", bytesRead);
+            res.put("bytesTotal", bytesTotal);
+            res.put("rows", rows);
+            res.put("inserted", inserted);
+            res.put("updated", updated);
+            res.put("failed", failed);
+            res.put("errors", List.copyOf(errors));
+            if (error != null) res.put("error", error);
+            return res;
+        }
+    }
+
+    private static final class CountingInputStream extends FilterInputStream {
+        private long count;
+
+        CountingInputStream(InputStream in) { super(in); }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) count++;
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) count += n;
+            return n;
+        }
+    }
+}
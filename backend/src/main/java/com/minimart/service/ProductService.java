@@ -1,15 +1,33 @@
 package com.minimart.service;
 
+import com.minimart.dto.ProductPage;
+import com.minimart.dto.ProductQuery;
+import com.minimart.dto.ProductView;
+import com.minimart.model.CatalogItem;
 import com.minimart.model.Product;
 import com.minimart.repository.ProductRepository;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
 import java.util.List;
+import java.util.NoSuchElementException;
 
 @Service
 public class ProductService {
+    private static final int MAX_PAGE_SIZE = 1000;
+
     private final ProductRepository repo;
-    public ProductService(ProductRepository repo) { this.repo = repo; }
+    private final StockReservation stock;
+    private final EntityCache<Long, CatalogItem> cache;
+    public ProductService(ProductRepository repo, StockReservation stock, EntityCache<Long, CatalogItem> cache) {
+        this.repo = repo; this.stock = stock; this.cache = cache;
+    }
 
     public Product create(Product p) { return repo.save(p); }
     public Product update(Long id, Product p) {
@@ -20,9 +38,76 @@ public class ProductService {
         e.setStock(p.getStock());
         e.setCategory(p.getCategory());
         e.setSupplier(p.getSupplier());
-        return repo.save(e);
+        Product saved = repo.save(e);
+        stock.invalidate(id);
+        cache.invalidate(id);
+        return saved;
+    }
+    public void delete(Long id) { repo.deleteById(id); stock.invalidate(id); cache.invalidate(id); }
+    /** Catalog fields from the cache, stock read fresh, as checkout reads them. */
+    public ProductView get(Long id) {
+        CatalogItem item = cache.get(id, k -> repo.findById(k).map(CatalogItem::of).orElse(null));
+        if (item == null) throw new NoSuchElementException("Product not found");
+        return ProductView.of(item, repo.findStockById(id).orElseThrow().getStock());
     }
-    public void delete(Long id) { repo.deleteById(id); }
-    public Product get(Long id) { return repo.findById(id).orElseThrow(); }
     public List<Product> all() { return repo.findAll(); }
+
+    /**
+     * Keyset page over the catalog: the cursor carries the last row's sort value and id, so every page is an
+     * index range scan of {@code limit + 1} rows instead of an offset scan.
+     */
+    public ProductPage page(ProductQuery q) {
+        int limit = Math.max(1, Math.min(q.getLimit(), MAX_PAGE_SIZE));
+        boolean desc = q.getSort().startsWith("-");
+        String key = desc ? q.getSort().substring(1) : q.getSort();
+        if (!List.of("id", "name", "price").contains(key)) throw new IllegalArgumentException("Unsupported sort: " + q.getSort());
+
+        Sort.Direction dir = desc ? Sort.Direction.DESC : Sort.Direction.ASC;
+        Sort sort = key.equals("id") ? Sort.by(dir, "id") : Sort.by(dir, key).and(Sort.by(dir, "id"));
+        Specification<Product> spec = filters(q).and(after(q.getCursor(), q.getSort(), key, desc));
+
+        List<Product> rows = repo.findBy(spec, f -> f.sortBy(sort).limit(limit + 1).all());
+        if (rows.size() <= limit) return new ProductPage(rows, null);
+        List<Product> items = rows.subList(0, limit);
+        return new ProductPage(items, encodeCursor(q.getSort(), key, items.get(limit - 1)));
+    }
+
+    private Specification<Product> filters(ProductQuery q) {
+        return (root, query, cb) -> {
+            List<Predicate> ps = new ArrayList<>();
+            if (q.getCategory() != null) ps.add(cb.equal(root.get("category"), q.getCategory()));
+            if (q.getSupplier() != null) ps.add(cb.equal(root.get("supplier"), q.getSupplier()));
+            if (q.getMinPrice() != null) ps.add(cb.greaterThanOrEqualTo(root.get("price"), q.getMinPrice()));
+            if (q.getMaxPrice() != null) ps.add(cb.lessThanOrEqualTo(root.get("price"), q.getMaxPrice()));
+            return cb.and(ps.toArray(new Predicate[0]));
+        };
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private Specification<Product> after(String cursor, String sort, String key, boolean desc) {
+        if (cursor == null || cursor.isBlank()) return (root, query, cb) -> cb.conjunction();
+        String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        int first = raw.indexOf('|'), last = raw.lastIndexOf('|');
+        if (first < 0 || !raw.substring(0, first).equals(sort)) throw new IllegalArgumentException("Cursor does not match sort " + sort);
+        Long lastId = Long.valueOf(raw.substring(last + 1));
+        if (key.equals("id")) {
+            return (root, query, cb) -> desc ? cb.lessThan(root.get("id"), lastId) : cb.greaterThan(root.get("id"), lastId);
+        }
+        Comparable value = key.equals("price") ? new BigDecimal(raw.substring(first + 1, last)) : raw.substring(first + 1, last);
+        return (root, query, cb) -> desc
+                ? cb.or(cb.lessThan(root.get(key), value),
+                        cb.and(cb.equal(root.get(key), value), cb.lessThan(root.get("id"), lastId)))
+                : cb.or(cb.greaterThan(root.get(key), value),
+                        cb.and(cb.equal(root.get(key), value), cb.greaterThan(root.get("id"), lastId)));
+    }
+
+    private String encodeCursor(String sort, String key, Product last) {
+        String value = switch (key) {
+            case "name" -> last.getName();
+            case "price" -> last.getPrice().toPlainString();
+            default -> "";
+        };
+        String raw = sort + "|" + value + "|" + last.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
 }
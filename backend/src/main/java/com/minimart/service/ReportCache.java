@@ -0,0 +1,126 @@
+package com.minimart.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Bounded LRU of report results keyed by kind and range. Ranges that ended before the settle window are immutable
+ * and stay until evicted; ranges reaching into the present are dropped when an order inside them commits.
+ * Concurrent requests for the same key share one computation.
+ */
+@Component
+public class ReportCache {
+    // Orders are timestamped before they commit, so a range is only final once this much time has passed its end.
+    private static final Duration SETTLE = Duration.ofMinutes(1);
+
+    private final int maxEntries;
+    private final LinkedHashMap<Key, Entry> entries;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public ReportCache(@Value("${app.reports.cache.max-entries:256}") int maxEntries) {
+        this.maxEntries = maxEntries;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                if (size() <= ReportCache.this.maxEntries) return false;
+                evictions.increment();
+                return true;
+            }
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T get(String kind, Instant from, Instant to, Supplier<T> compute) {
+        Key key = new Key(kind, from, to);
+        Entry entry;
+        boolean owner = false;
+        synchronized (entries) {
+            entry = entries.get(key);
+            if (entry == null) {
+                entry = new Entry(to.isAfter(Instant.now().minus(SETTLE)));
+                entries.put(key, entry);
+                owner = true;
+            }
+        }
+        if (owner) {
+            misses.increment();
+            try {
+                T value = compute.get();
+                entry.result.complete(value);
+                return value;
+            } catch (RuntimeException e) {
+                synchronized (entries) { entries.remove(key, entry); }
+                entry.result.completeExceptionally(e);
+                throw e;
+            }
+        }
+        if (entry.result.isDone()) hits.increment(); else coalesced.increment();
+        try {
+            return (T) entry.result.join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException r ? r : e;
+        }
+    }
+
+    @TransactionalEventListener
+    public void onOrderPlaced(OrderPlacedEvent e) {
+        evictCovering(List.of(e));
+    }
+
+    @TransactionalEventListener
+    public void onOrdersPlaced(OrdersPlacedEvent e) {
+        evictCovering(e.getOrders());
+    }
+
+    private void evictCovering(List<OrderPlacedEvent> placed) {
+        synchronized (entries) {
+            entries.entrySet().removeIf(en -> {
+                boolean stale = en.getValue().live && placed.stream().map(OrderPlacedEvent::getCreatedAt)
+                        .anyMatch(t -> !t.isBefore(en.getKey().from) && t.isBefore(en.getKey().to));
+                if (stale) invalidations.increment();
+                return stale;
+            });
+        }
+    }
+
+    public void clear() {
+        synchronized (entries) {
+            invalidations.add(entries.size());
+            entries.clear();
+        }
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> res = new LinkedHashMap<>();
+        synchronized (entries) { res.put("size", entries.size()); }
+        res.put("maxEntries", maxEntries);
+        res.put("hits", hits.sum());
+        res.put("misses", misses.sum());
+        res.put("coalesced", coalesced.sum());
+        res.put("invalidations", invalidations.sum());
+        res.put("evictions", evictions.sum());
+        return res;
+    }
+
+    private record Key(String kind, Instant from, Instant to) {}
+
+    private static final class Entry {
+        final boolean live;
+        final CompletableFuture<Object> result = new CompletableFuture<>();
+
+        Entry(boolean live) { this.live = live; }
+    }
+}
@@ -0,0 +1,155 @@
+package com.minimart.service;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs report requests off the request threads on a small dedicated pool. Waiting jobs are ordered by range length
+ * so quick reports overtake heavy ones, and submissions are rejected once {@code app.reports.jobs.queue-capacity}
+ * jobs are waiting. Finished jobs are kept for {@code app.reports.jobs.retention} and then forgotten.
+ */
+@Service
+public class ReportJobService {
+    public enum Status { QUEUED, RUNNING, DONE, FAILED }
+    public enum Format { JSON, PDF }
+
+    private final ReportService reports;
+    private final ThreadPoolExecutor executor;
+    // Slots for jobs not yet started; the priority queue itself cannot be bounded.
+    private final Semaphore waiting;
+    private final Duration retention;
+    private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicInteger threads = new AtomicInteger();
+
+    public ReportJobService(ReportService reports,
+                            @Value("${app.reports.jobs.workers:2}") int workers,
+                            @Value("${app.reports.jobs.queue-capacity:100}") int queueCapacity,
+                            @Value("${app.reports.jobs.retention:PT1H}") Duration retention,
+                            @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        this.reports = reports;
+        this.waiting = new Semaphore(queueCapacity);
+        this.retention = retention;
+        // Workers still cap concurrent jobs in virtual-thread mode; they just stop blocking a carrier on JDBC.
+        ThreadFactory factory = virtualThreads && Runtime.version().feature() >= 21
+                ? new VirtualThreadTaskExecutor("report-job-").getVirtualThreadFactory()
+                : r -> {
+                    Thread t = new Thread(r, "report-job-" + threads.incrementAndGet());
+                    t.setDaemon(true);
+                    t.setPriority(Thread.NORM_PRIORITY - 1);
+                    return t;
+                };
+        this.executor = new ThreadPoolExecutor(workers, workers, 0, TimeUnit.MILLISECONDS, new PriorityBlockingQueue<>(), factory);
+    }
+
+    public Job submit(Format format, Instant from, Instant to) {
+        return enqueue(format, from, to, true);
+    }
+
+    /**
+     * Queues a report for a caller that waits for it. The job shares the pool and its ordering but is not kept
+     * for polling, so its result goes once the caller has sent it.
+     */
+    public CompletableFuture<Object> render(Format format, Instant from, Instant to) {
+        return enqueue(format, from, to, false).completion();
+    }
+
+    private Job enqueue(Format format, Instant from, Instant to, boolean retained) {
+        purgeExpired();
+        if (!waiting.tryAcquire()) throw new RejectedExecutionException("Report queue is full");
+        Job job = new Job(UUID.randomUUID().toString(), format, from, to, sequence.incrementAndGet());
+        if (retained) jobs.put(job.id, job);
+        try {
+            executor.execute(job);
+        } catch (RejectedExecutionException e) {
+            waiting.release();
+            jobs.remove(job.id);
+            throw e;
+        }
+        return job;
+    }
+
+    public Optional<Job> get(String id) {
+        return Optional.ofNullable(jobs.get(id));
+    }
+
+    public int queued() { return executor.getQueue().size(); }
+
+    @PreDestroy
+    public void shutdown() { executor.shutdownNow(); }
+
+    private void purgeExpired() {
+        Instant cutoff = Instant.now().minus(retention);
+        jobs.values().removeIf(j -> j.finishedAt != null && j.finishedAt.isBefore(cutoff));
+    }
+
+    public class Job implements Runnable, Comparable<Job> {
+        private final String id;
+        private final Format format;
+        private final Instant from;
+        private final Instant to;
+        private final long seq;
+        private final Instant submittedAt = Instant.now();
+        private volatile Status status = Status.QUEUED;
+        private volatile Object result;
+        private volatile String error;
+        private volatile Instant finishedAt;
+        private final CompletableFuture<Object> completion = new CompletableFuture<>();
+
+        Job(String id, Format format, Instant from, Instant to, long seq) {
+            this.id = id; this.format = format; this.from = from; this.to = to; this.seq = seq;
+        }
+
+        @Override
+        public void run() {
+            waiting.release();
+            status = Status.RUNNING;
+            try {
+                result = format == Format.PDF ? reports.salesSummaryPdf(from, to) : reports.salesSummary(from, to);
+                status = Status.DONE;
+                finishedAt = Instant.now();
+                completion.complete(result);
+            } catch (RuntimeException e) {
+                error = e.getMessage();
+                status = Status.FAILED;
+                finishedAt = Instant.now();
+                completion.completeExceptionally(e);
+            }
+        }
+
+        /** Shorter ranges first; submission order among equal ranges. */
+        @Override
+        public int compareTo(Job o) {
+            int c = Duration.between(from, to).compareTo(Duration.between(o.from, o.to));
+            return c != 0 ? c : Long.compare(seq, o.seq);
+        }
+
+        public String getId() { return id; }
+        public Format getFormat() { return format; }
+        public Status getStatus() { return status; }
+        public Object getResult() { return result; }
+        public CompletableFuture<Object> completion() { return completion; }
+
+        public Map<String, Object> describe() {
+            Map<String, Object> res = new LinkedHashMap<>();
+            res.put("id", id);
+            res.put("format", format);
+            res.put("from", from.toString());
+            res.put("to", to.toString());
+            res.put("status", status);
+            res.put("submittedAt", submittedAt.toString());
+            if (finishedAt != null) res.put("finishedAt", finishedAt.toString());
+            if (error != null) res.put("error", error);
+            return res;
+        }
+    }
+}
@@ -1,86 +1,161 @@
 package com.minimart.service;
 
-import com.lowagie.text.Chunk;
-import com.lowagie.text.Document;
-import com.lowagie.text.FontFactory;
-import com.lowagie.text.Paragraph;
-import com.lowagie.text.pdf.PdfPTable;
-import com.lowagie.text.pdf.PdfWriter;
-import com.minimart.model.Order;
-import com.minimart.model.OrderItem;
+import com.minimart.model.RollupGranularity;
 import com.minimart.repository.OrderRepository;
+import com.minimart.repository.ProductRepository;
+import com.minimart.repository.SalesRollupRepository;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
 import java.math.BigDecimal;
 import java.time.Instant;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.stream.Stream;
 
+@Timed(value = "minimart.reports", description = "Report generation")
 @Service
 public class ReportService {
     private final OrderRepository orderRepo;
+    private final ProductRepository productRepo;
+    private final SalesRollupRepository rollupRepo;
+    private final SalesRollupService rollups;
+    private final ReportCache cache;
+    private final PdfService pdf;
 
-    public ReportService(OrderRepository orderRepo) {
-        this.orderRepo = orderRepo;
+    public ReportService(OrderRepository orderRepo, ProductRepository productRepo, SalesRollupRepository rollupRepo,
+                         SalesRollupService rollups, ReportCache cache, PdfService pdf) {
+        this.orderRepo = orderRepo; this.productRepo = productRepo; this.rollupRepo = rollupRepo;
+        this.rollups = rollups; this.cache = cache; this.pdf = pdf;
     }
 
     public Map<String, Object> salesSummary(Instant from, Instant to) {
-        List<Order> orders = orderRepo.findAllBetween(from, to);
-        BigDecimal totalRevenue = BigDecimal.ZERO;
-        int totalOrders = orders.size();
-        Map<String, Integer> productQty = new HashMap<>();
-
-        for (Order o : orders) {
-            totalRevenue = totalRevenue.add(o.getTotalAmount());
-            for (OrderItem i : o.getItems()) {
-                String name = i.getProduct().getName();
-                productQty.put(name, productQty.getOrDefault(name, 0) + i.getQuantity());
+        return cache.get("summary", from, to, () -> computeSalesSummary(from, to));
+    }
+
+    public byte[] salesSummaryPdf(Instant from, Instant to) {
+        return cache.get("summary.pdf", from, to, () -> renderSalesSummaryPdf(from, to));
+    }
+
+    /**
+     * Totals and per-product figures for {@code [from, to)}. Whole days come from the daily rollups, whole hours at
+     * either edge from the hourly rollups, and only the partial hours at the edges are aggregated from raw orders, so
+     * the cost barely depends on the length of the range. Orders roll up in the transaction that places them, so the
+     * rollups are as current as the orders, the current hour and day included.
+     */
+    private Map<String, Object> computeSalesSummary(Instant from, Instant to) {
+        Totals totals = new Totals();
+        Instant rollStart = ceilHour(from);
+        Instant rollEnd = rollups.hourBucket(to);
+
+        if (!rollStart.isBefore(rollEnd)) {
+            addRaw(totals, from, to);
+        } else {
+            addRaw(totals, from, rollStart);
+            Instant firstDay = rollups.dayBucket(rollStart).equals(rollStart) ? rollStart : rollups.nextDay(rollups.dayBucket(rollStart));
+            Instant lastDay = rollups.dayBucket(rollEnd);
+            if (firstDay.isBefore(lastDay)) {
+                addRollup(totals, RollupGranularity.HOUR, rollStart, firstDay);
+                addRollup(totals, RollupGranularity.DAY, firstDay, lastDay);
+                addRollup(totals, RollupGranularity.HOUR, lastDay, rollEnd);
+            } else {
+                addRollup(totals, RollupGranularity.HOUR, rollStart, rollEnd);
             }
+            addRaw(totals, rollEnd, to);
         }
+        return totals.toSummary(from, to, productNames(totals));
+    }
 
-        String topProduct = productQty.entrySet().stream()
-                .max(Map.Entry.comparingByValue())
-                .map(Map.Entry::getKey)
-                .orElse(null);
-
-        Map<String, Object> res = new HashMap<>();
-        res.put("from", from.toString());
-        res.put("to", to.toString());
-        res.put("totalRevenue", totalRevenue);
-        res.put("totalOrders", totalOrders);
-        res.put("topProduct", topProduct);
-        return res;
+    private byte[] renderSalesSummaryPdf(Instant from, Instant to) {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        pdf.salesSummary(salesSummary(from, to), baos);
+        return baos.toByteArray();
     }
 
-    public byte[] salesSummaryPdf(Instant from, Instant to) {
+    /** Every order line in the range, streamed from a cursor into the PDF as it is rendered. Not cached. */
+    @Transactional(readOnly = true)
+    public void salesDetailPdf(Instant from, Instant to, OutputStream out) {
         Map<String, Object> summary = salesSummary(from, to);
-        try {
-            ByteArrayOutputStream baos = new ByteArrayOutputStream();
-            Document doc = new Document();
-            PdfWriter.getInstance(doc, baos);
-            doc.open();
-            doc.add(new Paragraph("Minimart - Sales Report",
-                    FontFactory.getFont(FontFactory.HELVETICA_BOLD, 18)));
-            doc.add(new Paragraph("From: " + summary.get("from")));
-            doc.add(new Paragraph("To: " + summary.get("to")));
-            doc.add(Chunk.NEWLINE);
-
-            PdfPTable table = new PdfPTable(2);
-            table.setWidthPercentage(60);
-            table.addCell("Total Orders");
-            table.addCell(summary.get("totalOrders").toString());
-            table.addCell("Total Revenue");
-            table.addCell(summary.get("totalRevenue").toString());
-            table.addCell("Top Product");
-            table.addCell(String.valueOf(summary.get("topProduct")));
-            doc.add(table);
-
-            doc.close();
-            return baos.toByteArray();
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to generate sales report PDF", e);
+        try (Stream<OrderRepository.OrderLineRow> lines = orderRepo.streamLinesBetween(from, to)) {
+            pdf.salesDetail(summary, lines.iterator(), out);
+        }
+    }
+
+    private void addRaw(Totals totals, Instant from, Instant to) {
+        if (!from.isBefore(to)) return;
+        OrderRepository.OrderTotals t = orderRepo.totalsBetween(from, to);
+        totals.addOrders(t.getOrders(), t.getRevenue());
+        for (OrderRepository.ProductSales p : orderRepo.productSalesBetween(from, to)) {
+            totals.addProduct(p.getProductId(), p.getOrders(), p.getQuantity(), p.getRevenue());
+        }
+    }
+
+    private void addRollup(Totals totals, RollupGranularity granularity, Instant from, Instant to) {
+        if (!from.isBefore(to)) return;
+        OrderRepository.OrderTotals t = rollupRepo.totalsBetween(granularity, from, to);
+        totals.addOrders(t.getOrders(), t.getRevenue());
+        for (SalesRollupRepository.ProductRollup p : rollupRepo.productSalesBetween(granularity, from, to)) {
+            totals.addProduct(p.getProductId(), p.getOrders(), p.getQuantity(), p.getRevenue());
+        }
+    }
+
+    private Map<Long, String> productNames(Totals totals) {
+        Map<Long, String> names = new HashMap<>();
+        if (!totals.products.isEmpty()) productRepo.findAllById(totals.products.keySet()).forEach(p -> names.put(p.getId(), p.getName()));
+        return names;
+    }
+
+    private static Instant ceilHour(Instant t) {
+        Instant h = t.truncatedTo(ChronoUnit.HOURS);
+        return h.equals(t) ? h : h.plus(1, ChronoUnit.HOURS);
+    }
+
+    /** Sums segment results; every figure is additive because each order falls into exactly one bucket. */
+    static final class Totals {
+        long orders;
+        BigDecimal revenue = BigDecimal.ZERO;
+        final Map<Long, long[]> products = new HashMap<>();
+        final Map<Long, BigDecimal> productRevenue = new HashMap<>();
+
+        void addOrders(long n, BigDecimal amount) {
+            orders += n;
+            revenue = revenue.add(amount);
+        }
+
+        void addProduct(Long productId, long orderCount, long quantity, BigDecimal amount) {
+            long[] c = products.computeIfAbsent(productId, id -> new long[2]);
+            c[0] += orderCount;
+            c[1] += quantity;
+            productRevenue.merge(productId, amount, BigDecimal::add);
+        }
+
+        Map<String, Object> toSummary(Instant from, Instant to, Map<Long, String> names) {
+            List<Map<String, Object>> perProduct = new ArrayList<>(products.size());
+            products.entrySet().stream()
+                    .sorted(Comparator.<Map.Entry<Long, long[]>>comparingLong(e -> -e.getValue()[1]).thenComparing(Map.Entry::getKey))
+                    .forEach(e -> {
+                        Map<String, Object> row = new LinkedHashMap<>();
+                        row.put("productId", e.getKey());
+                        row.put("name", names.get(e.getKey()));
+                        row.put("orders", e.getValue()[0]);
+                        row.put("quantity", e.getValue()[1]);
+                        row.put("revenue", productRevenue.get(e.getKey()));
+                        perProduct.add(row);
+                    });
+            Map<String, Object> top = perProduct.isEmpty() ? null : perProduct.get(0);
+
+            Map<String, Object> res = new HashMap<>();
+            res.put("from", from.toString());
+            res.put("to", to.toString());
+            res.put("totalRevenue", revenue);
+            res.put("totalOrders", orders);
+            res.put("topProduct", top == null ? null : top.get("name"));
+            res.put("topProductId", top == null ? null : top.get("productId"));
+            res.put("products", perProduct);
+            return res;
         }
     }
 }
@@ -0,0 +1,171 @@
+package com.minimart.service;
+
+import com.minimart.model.RollupGranularity;
+import com.minimart.repository.OrderRepository;
+import com.minimart.repository.SalesRollupRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Keeps hourly and daily rollups current as orders commit and rebuilds them from raw orders on demand.
+ * Hour buckets are UTC hours; day buckets are days in the report zone, which is the JVM default zone
+ * like the date parameters of {@code ReportController} (zones with whole-hour offsets are assumed).
+ */
+@Service
+public class SalesRollupService {
+    private static final Logger log = LoggerFactory.getLogger(SalesRollupService.class);
+
+    private final SalesRollupRepository rollups;
+    private final OrderRepository orders;
+    private final ReportCache cache;
+    private final DataSource dataSource;
+    private final TransactionTemplate tx;
+    private final int shards;
+    private final ZoneId zone = ZoneId.systemDefault();
+
+    public SalesRollupService(SalesRollupRepository rollups, OrderRepository orders, ReportCache cache,
+                              DataSource dataSource, PlatformTransactionManager txManager,
+                              @Value("${app.reports.rollups.shards:8}") int shards) {
+        this.rollups = rollups; this.orders = orders; this.cache = cache;
+        this.dataSource = dataSource; this.shards = shards;
+        this.tx = new TransactionTemplate(txManager);
+    }
+
+    public ZoneId zone() { return zone; }
+
+    public Instant hourBucket(Instant t) { return t.truncatedTo(ChronoUnit.HOURS); }
+
+    public Instant dayBucket(Instant t) { return t.atZone(zone).truncatedTo(ChronoUnit.DAYS).toInstant(); }
+
+    public Instant nextDay(Instant dayStart) { return dayStart.atZone(zone).plusDays(1).toInstant(); }
+
+    /**
+     * Runs as the order commits, in its transaction; a failure here is rolled back to a savepoint and never fails the
+     * order, and a rebuild repairs the buckets.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void onOrderPlaced(OrderPlacedEvent e) {
+        add(List.of(e));
+    }
+
+    /** A batch chunk's orders, summed per bucket first so the whole chunk costs as many statements as one order. */
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void onOrdersPlaced(OrdersPlacedEvent e) {
+        add(e.getOrders());
+    }
+
+    private void add(List<OrderPlacedEvent> placed) {
+        // Sorted by bucket, then product id, so concurrent orders lock rollup rows in the same order.
+        Map<Instant, Bucket> hours = new TreeMap<>(), days = new TreeMap<>();
+        for (OrderPlacedEvent e : placed) {
+            hours.computeIfAbsent(hourBucket(e.getCreatedAt()), b -> new Bucket()).add(e);
+            days.computeIfAbsent(dayBucket(e.getCreatedAt()), b -> new Bucket()).add(e);
+        }
+        // A savepoint of the order's own transaction rather than a transaction of its own, which would need a second
+        // connection while the order holds its first: checkouts waiting on each other for one exhaust the pool.
+        // The rows stay locked until the order commits, so each checkout takes a random shard of its buckets and
+        // only waits for the checkouts that drew the same one.
+        int shard = ThreadLocalRandom.current().nextInt(shards);
+        Connection con = DataSourceUtils.getConnection(dataSource);
+        Savepoint savepoint = null;
+        try {
+            savepoint = con.setSavepoint();
+            hours.forEach((start, b) -> b.addTo(RollupGranularity.HOUR, start, shard));
+            days.forEach((start, b) -> b.addTo(RollupGranularity.DAY, start, shard));
+            con.releaseSavepoint(savepoint);
+        } catch (SQLException | RuntimeException ex) {
+            rollback(con, savepoint);
+            log.warn("Failed to roll up orders {}; rebuild their days to repair the rollups",
+                    placed.stream().map(OrderPlacedEvent::getOrderId).toList(), ex);
+        } finally {
+            DataSourceUtils.releaseConnection(con, dataSource);
+        }
+    }
+
+    private static void rollback(Connection con, Savepoint savepoint) {
+        if (savepoint == null) return;
+        try {
+            con.rollback(savepoint);
+        } catch (SQLException ex) {
+            // The order's commit fails on the aborted transaction and reports it.
+            log.warn("Failed to roll back to the rollup savepoint", ex);
+        }
+    }
+
+    /** The orders of one bucket, summed. */
+    private final class Bucket {
+        private long orders;
+        private BigDecimal revenue = BigDecimal.ZERO;
+        private final Map<Long, long[]> counts = new TreeMap<>(); // product id -> orders, quantity
+        private final Map<Long, BigDecimal> revenues = new HashMap<>();
+
+        void add(OrderPlacedEvent e) {
+            orders++;
+            revenue = revenue.add(e.getTotalAmount());
+            e.getLines().forEach((id, line) -> {
+                long[] c = counts.computeIfAbsent(id, k -> new long[2]);
+                c[0]++;
+                c[1] += line.getQuantity();
+                revenues.merge(id, line.getRevenue(), BigDecimal::add);
+            });
+        }
+
+        void addTo(RollupGranularity granularity, Instant start, int shard) {
+            Long[] ids = counts.keySet().toArray(new Long[0]);
+            Long[] productOrders = counts.values().stream().map(c -> c[0]).toArray(Long[]::new);
+            Long[] qty = counts.values().stream().map(c -> c[1]).toArray(Long[]::new);
+            BigDecimal[] rev = counts.keySet().stream().map(revenues::get).toArray(BigDecimal[]::new);
+            rollups.addOrders(granularity, start, shard, orders, revenue, ids, productOrders, qty, rev);
+        }
+    }
+
+    /** Backfills every closed day on first start after the rollup tables were introduced. */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillIfEmpty() {
+        if (rollups.count() > 0) return;
+        Instant first = orders.firstOrderAt();
+        if (first == null) return;
+        Map<String, Object> result = tx.execute(s -> rebuild(first, Instant.now()));
+        log.info("Backfilled sales rollups: {}", result);
+    }
+
+    /**
+     * Recomputes both granularities for the whole days covering {@code [from, to)}. Only closed days are rebuilt;
+     * today's buckets are left to the incremental path so orders committing during the rebuild are not lost.
+     */
+    @Transactional
+    public Map<String, Object> rebuild(Instant from, Instant to) {
+        Instant start = dayBucket(from);
+        Instant today = dayBucket(Instant.now());
+        Instant end = to.isAfter(today) ? today : (dayBucket(to).equals(to) ? to : nextDay(dayBucket(to)));
+        if (!start.isBefore(end)) return Map.of("from", start.toString(), "to", end.toString(), "hours", 0, "days", 0);
+        int hours = rollups.rebuild(RollupGranularity.HOUR, start, end, zone);
+        int days = rollups.rebuild(RollupGranularity.DAY, start, end, zone);
+        cache.clear();
+        return Map.of("from", start.toString(), "to", end.toString(), "hours", hours, "days", days);
+    }
+}
@@ -0,0 +1,285 @@
+package com.minimart.service;
+
+import com.minimart.repository.ProductRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-memory striped counters for the hottest products, configured with {@code app.stock.sharded.hot-product-ids}.
+ * The counters are the source of truth for those products while the application runs; committed reservations are
+ * written behind to {@code products} every {@code app.stock.sharded.flush-ms}. All other products use the atomic
+ * conditional update.
+ * <p>
+ * A counter is (re)loaded from the database only once nothing taken from its predecessor is outstanding: every
+ * reservation in flight has committed or rolled back, and every committed one has been written. The product's lock
+ * spans that drain and the load, and the write-behind flush holds it too, so a loaded counter never includes units
+ * that were already sold.
+ */
+@Component
+@ConditionalOnProperty(name = "app.stock.strategy", havingValue = "sharded")
+public class ShardedStockReservation implements StockReservation {
+    private static final Logger log = LoggerFactory.getLogger(ShardedStockReservation.class);
+    // How long a reload waits for reservations still in flight, e.g. taken earlier in the caller's own batch.
+    private static final long DRAIN_TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(5);
+
+    private final ProductRepository productRepo;
+    private final AtomicStockReservation fallback;
+    private final TransactionTemplate writeTx;
+    private final int stripes;
+    // Fixed at startup and ordered by id, the order in which the flush takes their locks.
+    private final SortedMap<Long, HotStock> hot;
+
+    public ShardedStockReservation(ProductRepository productRepo, PlatformTransactionManager txManager,
+                                   @Value("${app.stock.sharded.hot-product-ids:}") Set<Long> hotProducts,
+                                   @Value("${app.stock.sharded.stripes:0}") int stripes) {
+        this.productRepo = productRepo;
+        this.fallback = new AtomicStockReservation(productRepo);
+        // Written stock must not depend on the outcome of whichever checkout happens to trigger the write.
+        this.writeTx = new TransactionTemplate(txManager);
+        this.writeTx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.stripes = stripes > 0 ? stripes : Runtime.getRuntime().availableProcessors() * 2;
+        SortedMap<Long, HotStock> hot = new TreeMap<>();
+        for (Long id : hotProducts) hot.put(id, new HotStock(id));
+        this.hot = Collections.unmodifiableSortedMap(hot);
+    }
+
+    private record Taken(HotStock stock, StripedStock counter, int qty) {}
+
+    @Override
+    public boolean reserve(Map<Long, Integer> quantities) {
+        Map<Long, Integer> cold = new LinkedHashMap<>();
+        List<Taken> taken = new ArrayList<>();
+        try {
+            for (Map.Entry<Long, Integer> e : quantities.entrySet()) {
+                HotStock h = hot.get(e.getKey());
+                if (h == null) {
+                    cold.put(e.getKey(), e.getValue());
+                    continue;
+                }
+                StripedStock counter = h.acquire();
+                if (!counter.tryTake(e.getValue())) {
+                    h.inFlight.decrementAndGet();
+                    release(taken);
+                    return false;
+                }
+                taken.add(new Taken(h, counter, e.getValue()));
+            }
+            if (!cold.isEmpty() && !fallback.reserve(cold)) {
+                release(taken);
+                return false;
+            }
+        } catch (RuntimeException e) {
+            release(taken);
+            throw e;
+        }
+        if (!taken.isEmpty()) afterCompletion(taken);
+        return true;
+    }
+
+    /**
+     * Retires the product's counter, waits for its reservations in flight and writes what they took, so the next
+     * checkout loads the stock as changed. Inside a transaction this happens once it completes.
+     */
+    @Override
+    public void invalidate(Long productId) {
+        HotStock h = hot.get(productId);
+        if (h == null) return;
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            h.retire();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) { h.retire(); }
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${app.stock.sharded.flush-ms:500}")
+    @PreDestroy
+    public void flush() {
+        List<HotStock> locked = new ArrayList<>(hot.size());
+        try {
+            for (HotStock h : hot.values()) {
+                h.lock.lock();
+                locked.add(h);
+            }
+            Map<Long, Integer> batch = new HashMap<>();
+            for (HotStock h : locked) {
+                long n = h.pending.sumThenReset();
+                if (n > 0) batch.put(h.productId, (int) n);
+            }
+            write(batch);
+        } finally {
+            locked.forEach(h -> h.lock.unlock());
+        }
+    }
+
+    // Callers hold the lock of every product in the batch.
+    private void write(Map<Long, Integer> batch) {
+        if (batch.isEmpty()) return;
+        try {
+            writeTx.executeWithoutResult(s -> productRepo.subtractStock(batch));
+        } catch (RuntimeException e) {
+            batch.forEach((id, qty) -> hot.get(id).pending.add(qty));
+            throw e;
+        }
+    }
+
+    private void afterCompletion(List<Taken> taken) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            commit(taken);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) commit(taken);
+                else release(taken);
+            }
+        });
+    }
+
+    // Pending before in-flight drops, so a drain that sees nothing in flight also sees everything pending.
+    private static void commit(List<Taken> taken) {
+        for (Taken t : taken) {
+            t.stock().pending.add(t.qty());
+            t.stock().inFlight.decrementAndGet();
+        }
+    }
+
+    private static void release(List<Taken> taken) {
+        for (Taken t : taken) {
+            t.counter().put(t.qty());
+            t.stock().inFlight.decrementAndGet();
+        }
+    }
+
+    /** One hot product: its live counter, the reservations taken from it in flight, and those not yet written. */
+    private final class HotStock {
+        private final Long productId;
+        private final ReentrantLock lock = new ReentrantLock();
+        // Null until loaded and after being retired; replaced only under the lock.
+        private volatile StripedStock counter;
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final LongAdder pending = new LongAdder();
+
+        HotStock(Long productId) { this.productId = productId; }
+
+        /** The live counter, with one reservation counted in flight against it; the caller takes or gives it back. */
+        StripedStock acquire() {
+            for (;;) {
+                // Counted before the counter is read, so a retire either sees this reservation or it sees no counter.
+                inFlight.incrementAndGet();
+                StripedStock c = counter;
+                if (c != null) return c;
+                inFlight.decrementAndGet();
+                load();
+            }
+        }
+
+        private void load() {
+            lock.lock();
+            try {
+                if (counter != null) return;
+                drain();
+                counter = new StripedStock(stripes, productRepo.findStockById(productId).orElseThrow().getStock());
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void retire() {
+            lock.lock();
+            try {
+                counter = null;
+                drain();
+            } catch (RuntimeException e) {
+                // The counter stays retired; the next checkout of the product drains again before loading.
+                log.warn("Could not write back reserved stock of product {}: {}", productId, e.getMessage());
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        // Lock held, counter retired: waits out the reservations in flight, then writes everything they took.
+        private void drain() {
+            long deadline = System.nanoTime() + DRAIN_TIMEOUT_NANOS;
+            while (inFlight.get() > 0) {
+                if (System.nanoTime() - deadline > 0) {
+                    throw new IllegalStateException("Stock reservations for product " + productId + " are still in flight");
+                }
+                LockSupport.parkNanos(100_000);
+            }
+            long n = pending.sumThenReset();
+            if (n > 0) write(Map.of(productId, (int) n));
+        }
+    }
+
+    /**
+     * Stock split across padded stripes so concurrent checkouts of the same product rarely touch the same cache line.
+     * A take first tries the caller's home stripe and only then drains the others; no stripe ever goes negative.
+     */
+    static final class StripedStock {
+        private static final int PAD = 16;
+        private final AtomicIntegerArray cells;
+        private final int stripes;
+
+        StripedStock(int stripes, int stock) {
+            this.stripes = stripes;
+            this.cells = new AtomicIntegerArray(stripes * PAD);
+            for (int i = 0; i < stripes; i++) cells.set(i * PAD, stock / stripes + (i < stock % stripes ? 1 : 0));
+        }
+
+        boolean tryTake(int qty) {
+            int home = home();
+            int got = takeUpTo(home, qty);
+            if (got == qty) return true;
+            int[] taken = new int[stripes];
+            taken[home] = got;
+            for (int k = 1; k < stripes && got < qty; k++) {
+                int s = (home + k) % stripes;
+                taken[s] = takeUpTo(s, qty - got);
+                got += taken[s];
+            }
+            if (got == qty) return true;
+            for (int s = 0; s < stripes; s++) if (taken[s] > 0) cells.addAndGet(s * PAD, taken[s]);
+            return false;
+        }
+
+        void put(int qty) {
+            cells.addAndGet(home() * PAD, qty);
+        }
+
+        private int takeUpTo(int stripe, int want) {
+            int idx = stripe * PAD;
+            for (;;) {
+                int cur = cells.get(idx);
+                if (cur <= 0) return 0;
+                int t = Math.min(cur, want);
+                if (cells.compareAndSet(idx, cur, cur - t)) return t;
+            }
+        }
+
+        private int home() {
+            return (int) ((Thread.currentThread().getId() * 0x9E3779B97F4A7C15L) >>> 33) % stripes;
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.minimart.service;
+
+import java.util.Map;
+
+/**
+ * Reserves stock for a checkout. Implementations are selected with {@code app.stock.strategy}
+ * and are called inside the order's transaction, so a failed order releases whatever was taken.
+ */
+public interface StockReservation {
+    /** Takes the given quantity of every product, or nothing at all. Returns false if any product is short. */
+    boolean reserve(Map<Long, Integer> quantities);
+
+    /** Drops any state held for a product whose stock was changed outside of checkout. */
+    default void invalidate(Long productId) {}
+}
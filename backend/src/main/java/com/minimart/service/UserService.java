@@ -4,6 +4,8 @@ import com.minimart.dto.RegisterUserRequest;
 import com.minimart.model.Role;
 import com.minimart.model.User;
 import com.minimart.repository.UserRepository;
+import com.minimart.security.PrincipalCache;
+import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
@@ -14,10 +16,15 @@ import java.util.stream.Collectors;
 public class UserService {
     private final UserRepository repo;
     private final PasswordEncoder encoder;
+    private final PrincipalCache principals;
+    private final EntityCache<String, UserDetails> userCache;
 
-    public UserService(UserRepository repo, PasswordEncoder encoder) {
+    public UserService(UserRepository repo, PasswordEncoder encoder, PrincipalCache principals,
+                       EntityCache<String, UserDetails> userCache) {
         this.repo = repo;
         this.encoder = encoder;
+        this.principals = principals;
+        this.userCache = userCache;
     }
 
     // Create user
@@ -49,16 +56,17 @@ public class UserService {
 
     // Delete user by ID
     public void deleteById(Long id) {
-        if (!repo.existsById(id)) {
-            throw new RuntimeException("User not found with ID: " + id);
-        }
-        repo.deleteById(id);
+        User user = repo.findById(id)
+                .orElseThrow(() -> new RuntimeException("User not found with ID: " + id));
+        repo.delete(user);
+        revoke(user.getEmail());
     }
 
     // PUT - Full update
     public User updateUser(Long id, RegisterUserRequest req) {
         User existingUser = repo.findById(id)
                 .orElseThrow(() -> new RuntimeException("User not found with ID: " + id));
+        String previousEmail = existingUser.getEmail();
 
         existingUser.setEmail(req.getEmail());
         existingUser.setFullName(req.getFullName());
@@ -68,13 +76,18 @@ public class UserService {
             existingUser.setPassword(encoder.encode(req.getPassword()));
         }
 
-        return repo.save(existingUser);
+        User saved = repo.save(existingUser);
+        // Tokens carry the roles they were issued with, so any change sends the user back through login.
+        revoke(previousEmail);
+        revoke(saved.getEmail());
+        return saved;
     }
 
     // PATCH method in UserService
 public User patchUser(Long id, Map<String, Object> updates) {
     User user = repo.findById(id)
             .orElseThrow(() -> new RuntimeException("User not found with ID: " + id));
+    String previousEmail = user.getEmail();
 
     if (updates.containsKey("email")) {
         user.setEmail((String) updates.get("email"));
@@ -99,6 +112,19 @@ public User patchUser(Long id, Map<String, Object> updates) {
         user.setRoles(roles);
     }
 
-    return repo.save(user);
+    if (updates.containsKey("enabled")) {
+        user.setEnabled(Boolean.TRUE.equals(updates.get("enabled")));
+    }
+
+    User saved = repo.save(user);
+    revoke(previousEmail);
+    revoke(saved.getEmail());
+    return saved;
 }
+
+    // Both the claims-based principals and the cached database principal of the user.
+    private void revoke(String email) {
+        principals.revoke(email);
+        userCache.invalidate(email);
+    }
 }
@@ -0,0 +1,90 @@
+package com.minimart.util;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads RFC 4180 CSV, as written by the exports, one record at a time: fields may be quoted, with {@code ""} for a
+ * quote and line breaks inside quotes. Only the current record is held in memory, and a record longer than the limit
+ * given fails the read instead of growing without bound. Not thread-safe.
+ */
+public class CsvReader {
+    private final Reader in;
+    private final int maxRecordLength;
+    private long line = 1;
+    private long recordLine;
+    private int peeked = -2;
+
+    /** The input is not valid CSV or holds a record over the length limit; reading further cannot recover. */
+    public static class MalformedException extends IOException {
+        MalformedException(String message) { super(message); }
+    }
+
+    /**
+     * The reader should be buffered; it is read one character at a time. The fields of a record may hold
+     * at most {@code maxRecordLength} characters in all.
+     */
+    public CsvReader(Reader in, int maxRecordLength) { this.in = in; this.maxRecordLength = maxRecordLength; }
+
+    /**
+     * The next record's fields, or null at the end of input. Blank lines are skipped. Fails once the record exceeds
+     * the maximum length, since where it ends cannot be known without reading it all.
+     */
+    public List<String> next() throws IOException {
+        int c;
+        while ((c = read()) == '\r' || c == '\n') {
+            if (c == '\n' || peek() != '\n') line++;
+        }
+        if (c == -1) return null;
+        recordLine = line;
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        int length = 0;
+        for (; ; c = read()) {
+            if (quoted) {
+                if (c == -1) throw new MalformedException("Unterminated quoted field starting on line " + recordLine);
+                if (c == '"') {
+                    if (peek() == '"') { read(); append(field, '"', ++length); } else quoted = false;
+                } else {
+                    if (c == '\n') line++;
+                    append(field, c, ++length);
+                }
+            } else if (c == '"' && field.isEmpty()) {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\r' || c == '\n' || c == -1) {
+                if (c == '\r' && peek() == '\n') read();
+                if (c != -1) line++;
+                fields.add(field.toString());
+                return fields;
+            } else {
+                append(field, c, ++length);
+            }
+        }
+    }
+
+    /** The line on which the record last returned by {@link #next()} starts, counting from 1. */
+    public long recordLine() { return recordLine; }
+
+    private void append(StringBuilder field, int c, int length) throws IOException {
+        if (length > maxRecordLength) {
+            throw new MalformedException("Record starting on line " + recordLine + " is longer than " + maxRecordLength + " characters");
+        }
+        field.append((char) c);
+    }
+
+    private int read() throws IOException {
+        if (peeked != -2) { int c = peeked; peeked = -2; return c; }
+        return in.read();
+    }
+
+    private int peek() throws IOException {
+        if (peeked == -2) peeked = in.read();
+        return peeked;
+    }
+}
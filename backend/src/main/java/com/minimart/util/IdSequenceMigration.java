@@ -0,0 +1,49 @@
+package com.minimart.util;
+
+import com.minimart.model.Sequences;
+import jakarta.persistence.EntityManagerFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Moves databases created with identity ids onto the pooled {@code <table>_seq} sequences. Runs once the schema
+ * update has created the sequences and before the server takes requests: drops the identity default, so a stray
+ * insert without an id fails instead of colliding, and advances each sequence past the highest existing id.
+ * Both steps only read the catalog and the sequences on a migrated or new database; in particular no table is
+ * altered, which would lock it exclusively at every startup.
+ */
+@Component
+public class IdSequenceMigration implements InitializingBean {
+    private static final Logger log = LoggerFactory.getLogger(IdSequenceMigration.class);
+    private static final List<String> TABLES = List.of("users", "customers", "products", "orders", "order_items");
+
+    private final JdbcTemplate jdbc;
+
+    // The factory is only a dependency: it guarantees the schema update ran first.
+    public IdSequenceMigration(JdbcTemplate jdbc, EntityManagerFactory emf) { this.jdbc = jdbc; }
+
+    @Override
+    public void afterPropertiesSet() {
+        for (String table : TABLES) {
+            List<Integer> identity = jdbc.queryForList("select 1 from pg_attribute " +
+                    "where attrelid = ?::regclass and attname = 'id' and attidentity <> ''", Integer.class, table);
+            if (!identity.isEmpty()) {
+                jdbc.execute("alter table " + table + " alter column id drop identity");
+                log.info("Dropped the identity default of {}.id", table);
+            }
+            // The next nextval reserves the ids up to the value it returns, ALLOCATION_SIZE of them: the value itself
+            // until the sequence is first called, last_value + ALLOCATION_SIZE after. None of them may be taken, so
+            // the sequence moves to max(id), from where the next block starts above it.
+            List<Long> moved = jdbc.queryForList(
+                    "select setval('" + table + "_seq', m) from (select max(id) as m from " + table + ") x, " +
+                    table + "_seq s where m > case when s.is_called then s.last_value else s.last_value - ? end",
+                    Long.class, Sequences.ALLOCATION_SIZE);
+            if (!moved.isEmpty()) log.info("Advanced {}_seq to {}", table, moved.get(0));
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.minimart.util;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * SQL statements issued per thread, as counted by {@link QueryCountingDataSource} when
+ * {@code app.query-count.enabled} is set. Open a {@link Scope} around a request or service call to read how many
+ * statements it issued on the calling thread, or compare {@link #total()} before and after it to include the
+ * statements of work it handed to other threads.
+ */
+public final class QueryCount {
+    private static final ThreadLocal<long[]> PER_THREAD = ThreadLocal.withInitial(() -> new long[1]);
+    private static final LongAdder TOTAL = new LongAdder();
+
+    private QueryCount() {}
+
+    static void increment() {
+        PER_THREAD.get()[0]++;
+        TOTAL.increment();
+    }
+
+    /** Statements issued by every thread since startup. */
+    public static long total() { return TOTAL.sum(); }
+
+    public static Scope begin() { return new Scope(); }
+
+    /** Statements issued on the opening thread since the scope began. Scopes nest freely. */
+    public static final class Scope implements AutoCloseable {
+        private final long[] counter = PER_THREAD.get();
+        private final long start = counter[0];
+
+        private Scope() {}
+
+        public long count() { return counter[0] - start; }
+
+        @Override
+        public void close() {}
+    }
+}
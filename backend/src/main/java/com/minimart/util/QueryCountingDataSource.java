@@ -0,0 +1,68 @@
+package com.minimart.util;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Set;
+
+/**
+ * Counts statements sent to the database into {@link QueryCount}: every prepared or callable statement counts once
+ * when prepared (a JDBC batch is one statement), a plain {@link Statement} once per execute call. This matches how
+ * Hibernate counts prepared statements but also sees JdbcTemplate traffic, which Hibernate does not.
+ */
+public class QueryCountingDataSource extends DelegatingDataSource {
+    private static final Set<String> PREPARE = Set.of("prepareStatement", "prepareCall");
+    private static final Set<String> EXECUTE = Set.of("execute", "executeQuery", "executeUpdate", "executeLargeUpdate", "executeBatch", "executeLargeBatch");
+
+    public QueryCountingDataSource(DataSource target) {
+        super(target);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return counting(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return counting(super.getConnection(username, password));
+    }
+
+    private static Connection counting(Connection target) {
+        return proxy(Connection.class, (proxy, method, args) -> {
+            Object result = invoke(target, proxy, method, args);
+            if (PREPARE.contains(method.getName())) {
+                QueryCount.increment();
+            } else if (method.getName().equals("createStatement")) {
+                Statement statement = (Statement) result;
+                return proxy(Statement.class, (p, m, a) -> {
+                    if (EXECUTE.contains(m.getName())) QueryCount.increment();
+                    return invoke(statement, p, m, a);
+                });
+            }
+            return result;
+        });
+    }
+
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return type.cast(Proxy.newProxyInstance(QueryCountingDataSource.class.getClassLoader(), new Class<?>[]{type}, handler));
+    }
+
+    // Identity is the proxy's own, so Spring still recognises a connection it handed out when it comes back.
+    private static Object invoke(Object target, Object proxy, Method method, Object[] args) throws Throwable {
+        if (method.getName().equals("equals") && method.getParameterCount() == 1) return proxy == args[0];
+        if (method.getName().equals("hashCode") && method.getParameterCount() == 0) return System.identityHashCode(proxy);
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.minimart.util;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Moves rollup tables created before buckets were sharded onto a primary key that includes {@code shard}. The schema
+ * update adds the column, with existing rows on shard 0, but leaves the old key in place, which the rollup upserts
+ * cannot conflict on. On a migrated or new database this only reads the catalog.
+ */
+@Component
+public class RollupShardMigration implements InitializingBean {
+    private static final Logger log = LoggerFactory.getLogger(RollupShardMigration.class);
+    private static final Map<String, String> KEYS = Map.of(
+            "order_rollups", "granularity, bucket_start, shard",
+            "sales_rollups", "granularity, bucket_start, product_id, shard");
+
+    private final JdbcTemplate jdbc;
+
+    // The factory is only a dependency: it guarantees the schema update ran first.
+    public RollupShardMigration(JdbcTemplate jdbc, EntityManagerFactory emf) { this.jdbc = jdbc; }
+
+    @Override
+    public void afterPropertiesSet() {
+        KEYS.forEach((table, columns) -> {
+            List<String> unsharded = jdbc.queryForList("select c.conname::text from pg_constraint c " +
+                    "where c.conrelid = ?::regclass and c.contype = 'p' and not exists (select 1 from pg_attribute a " +
+                    "where a.attrelid = c.conrelid and a.attnum = any(c.conkey) and a.attname = 'shard')", String.class, table);
+            if (unsharded.isEmpty()) return;
+            jdbc.execute("alter table " + table + " drop constraint " + unsharded.get(0) + ", add primary key (" + columns + ")");
+            log.info("Moved the primary key of {} to ({})", table, columns);
+        });
+    }
+}
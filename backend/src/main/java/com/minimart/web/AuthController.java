@@ -1,44 +1,48 @@
 package com.minimart.web;
 
 import com.minimart.dto.LoginRequest;
-import com.minimart.dto.LoginResponse;
 import com.minimart.dto.RegisterUserRequest;
-import com.minimart.model.User;
-import com.minimart.repository.UserRepository;
-import com.minimart.security.JwtUtil;
+import com.minimart.service.LoginService;
 import com.minimart.service.UserService;
 import jakarta.validation.Valid;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.authentication.*;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.AuthenticationException;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.Map;
-import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestController
 @RequestMapping("/api/auth")
 public class AuthController {
-    private final AuthenticationManager authManager;
-    private final JwtUtil jwt;
-    private final UserRepository userRepo;
+    private final LoginService logins;
     private final UserService userService;
 
-    public AuthController(AuthenticationManager authManager, JwtUtil jwt, UserRepository userRepo, UserService userService) {
-        this.authManager = authManager; this.jwt = jwt; this.userRepo = userRepo; this.userService = userService;
+    public AuthController(LoginService logins, UserService userService) {
+        this.logins = logins; this.userService = userService;
     }
 
     @PostMapping("/login")
-    public ResponseEntity<?> login(@Valid @RequestBody LoginRequest req) {
-        Authentication auth = authManager.authenticate(new UsernamePasswordAuthenticationToken(req.getEmail(), req.getPassword()));
-        SecurityContextHolder.getContext().setAuthentication(auth);
-        User user = userRepo.findByEmail(req.getEmail()).orElseThrow();
-        Set<String> roles = user.getRoles().stream().map(Enum::name).collect(Collectors.toSet());
-        String token = jwt.generate(user.getEmail(), Map.of("roles", roles));
-        return ResponseEntity.ok(new LoginResponse(token, user.getId(), user.getEmail(), user.getFullName(), roles));
+    public CompletableFuture<ResponseEntity<?>> login(@Valid @RequestBody LoginRequest req) {
+        try {
+            return logins.login(req.getEmail(), req.getPassword())
+                    .<ResponseEntity<?>>thenApply(ResponseEntity::ok)
+                    .exceptionally(AuthController::failed);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, "1").body(Map.of("message", e.getMessage())));
+        }
+    }
+
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping("/stats")
+    public Map<String, Object> stats() {
+        return logins.stats();
     }
 
     @PostMapping("/register")
@@ -46,4 +50,12 @@ public class AuthController {
         // Only ADMIN can create users; this is enforced in SecurityConfig via path /api/users/**
         return ResponseEntity.status(403).body(Map.of("message", "Use /api/users endpoint as ADMIN"));
     }
+
+    private static ResponseEntity<?> failed(Throwable t) {
+        Throwable cause = t instanceof CompletionException && t.getCause() != null ? t.getCause() : t;
+        if (cause instanceof AuthenticationException) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("message", cause.getMessage()));
+        }
+        throw cause instanceof RuntimeException r ? r : new CompletionException(cause);
+    }
 }
@@ -2,20 +2,25 @@ package com.minimart.web;
 
 import com.minimart.model.Customer;
 import com.minimart.repository.CustomerRepository;
+import com.minimart.service.EntityCache;
 import jakarta.validation.Valid;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/customers")
 public class CustomerController {
     private final CustomerRepository repo;
-    public CustomerController(CustomerRepository repo) { this.repo = repo; }
+    private final EntityCache<Long, Customer> cache;
+    public CustomerController(CustomerRepository repo, EntityCache<Long, Customer> cache) { this.repo = repo; this.cache = cache; }
 
     @GetMapping public List<Customer> all() { return repo.findAll(); }
-    @GetMapping("/{id}") public Customer get(@PathVariable Long id) { return repo.findById(id).orElseThrow(); }
+    @GetMapping("/{id}") public Customer get(@PathVariable Long id) {
+        return Optional.ofNullable(cache.get(id, k -> repo.findById(k).orElse(null))).orElseThrow();
+    }
 
     @PreAuthorize("hasAnyRole('ADMIN','MANAGER','CASHIER')")
     @PostMapping public Customer create(@Valid @RequestBody Customer c) { return repo.save(c); }
@@ -24,9 +29,11 @@ public class CustomerController {
     @PutMapping("/{id}") public Customer update(@PathVariable Long id, @Valid @RequestBody Customer c) {
         Customer e = repo.findById(id).orElseThrow();
         e.setName(c.getName()); e.setEmail(c.getEmail()); e.setPhone(c.getPhone());
-        return repo.save(e);
+        Customer saved = repo.save(e);
+        cache.invalidate(id);
+        return saved;
     }
 
     @PreAuthorize("hasAnyRole('ADMIN')")
-    @DeleteMapping("/{id}") public void delete(@PathVariable Long id) { repo.deleteById(id); }
+    @DeleteMapping("/{id}") public void delete(@PathVariable Long id) { repo.deleteById(id); cache.invalidate(id); }
 }
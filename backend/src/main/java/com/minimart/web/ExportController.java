@@ -0,0 +1,48 @@
+package com.minimart.web;
+
+import com.minimart.service.ExportService;
+import com.minimart.service.ExportService.Format;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+
+@RestController
+@RequestMapping("/api/exports")
+public class ExportController {
+    private final ExportService exports;
+    public ExportController(ExportService exports) { this.exports = exports; }
+
+    @PreAuthorize("hasAnyRole('ADMIN','MANAGER')")
+    @GetMapping("/products.{ext}")
+    public void products(@PathVariable String ext, HttpServletResponse res) throws IOException {
+        exports.products(start(res, "products", ext), res.getOutputStream());
+    }
+
+    @PreAuthorize("hasAnyRole('ADMIN','MANAGER')")
+    @GetMapping("/customers.{ext}")
+    public void customers(@PathVariable String ext, HttpServletResponse res) throws IOException {
+        exports.customers(start(res, "customers", ext), res.getOutputStream());
+    }
+
+    @PreAuthorize("hasAnyRole('ADMIN','MANAGER')")
+    @GetMapping("/orders.{ext}")
+    public void orders(@PathVariable String ext, HttpServletResponse res) throws IOException {
+        exports.orders(start(res, "orders", ext), res.getOutputStream());
+    }
+
+    private Format start(HttpServletResponse res, String name, String ext) {
+        Format format = switch (ext) {
+            case "ndjson" -> Format.NDJSON;
+            case "csv" -> Format.CSV;
+            default -> throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Unsupported export format: " + ext);
+        };
+        res.setContentType(format == Format.CSV ? "text/csv;charset=UTF-8" : "application/x-ndjson");
+        res.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=" + name + "." + ext);
+        return format;
+    }
+}
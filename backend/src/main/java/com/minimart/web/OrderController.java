@@ -1,21 +1,47 @@
 package com.minimart.web;
 
 import com.minimart.dto.CreateOrderRequest;
+import com.minimart.dto.OrderPage;
+import com.minimart.dto.OrderQuery;
+import com.minimart.dto.OrderView;
 import com.minimart.model.Order;
+import com.minimart.service.BulkInvoiceService;
+import com.minimart.service.InvoiceService;
+import com.minimart.service.InvoiceStore;
+import com.minimart.service.OrderBatchService;
 import com.minimart.service.OrderService;
-import com.minimart.service.PdfService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.*;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/orders")
 public class OrderController {
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+
     private final OrderService orders;
-    private final PdfService pdf;
+    private final InvoiceService invoices;
+    private final BulkInvoiceService bulkInvoices;
+    private final OrderBatchService batches;
 
-    public OrderController(OrderService orders, PdfService pdf) { this.orders = orders; this.pdf = pdf; }
+    public OrderController(OrderService orders, InvoiceService invoices, BulkInvoiceService bulkInvoices,
+                           OrderBatchService batches) {
+        this.orders = orders; this.invoices = invoices; this.bulkInvoices = bulkInvoices; this.batches = batches;
+    }
 
     @PreAuthorize("hasAnyRole('ADMIN','MANAGER','CASHIER')")
     @PostMapping
@@ -23,16 +49,70 @@ public class OrderController {
         return orders.create(req);
     }
 
+    /** Many orders in a few transactions, e.g. a till replaying its offline sales; reports the outcome per order. */
+    @PreAuthorize("hasAnyRole('ADMIN','MANAGER','CASHIER')")
+    @PostMapping("/batch")
+    public ResponseEntity<?> createBatch(@RequestBody List<CreateOrderRequest> requests) {
+        try {
+            return ResponseEntity.ok(batches.create(requests));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        }
+    }
+
+    @PreAuthorize("hasAnyRole('ADMIN','MANAGER')")
+    @GetMapping("/invoices.zip")
+    public void invoicesZip(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            HttpServletResponse response
+    ) throws IOException {
+        response.setContentType("application/zip");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=invoices-" + from + "-" + to + ".zip");
+        bulkInvoices.writeZip(from.atStartOfDay(ZoneId.systemDefault()).toInstant(),
+                to.plusDays(1).atStartOfDay(ZoneId.systemDefault()).toInstant(), response.getOutputStream());
+    }
+
+    /** Keyset-paginated history, newest first; like the catalog, the next page is announced in {@code X-Next-Cursor}. */
+    @PreAuthorize("hasAnyRole('ADMIN','MANAGER','CASHIER')")
+    @GetMapping
+    public ResponseEntity<List<OrderPage.Summary>> list(OrderQuery q) {
+        OrderPage page = orders.page(q);
+        ResponseEntity.BodyBuilder res = ResponseEntity.ok();
+        if (page.getNextCursor() != null) res.header("X-Next-Cursor", page.getNextCursor());
+        return res.body(page.getItems());
+    }
+
     @GetMapping("/{id}")
-    public Order get(@PathVariable Long id) { return orders.get(id); }
+    public OrderView get(@PathVariable Long id) { return orders.get(id); }
 
+    /**
+     * Served from the invoice store with a strong ETag of the PDF's hash. Revalidations are answered with 304 and
+     * stored files are handed to Tomcat's sendfile when the connector supports it.
+     */
     @GetMapping("/{id}/invoice.pdf")
-    public ResponseEntity<byte[]> invoice(@PathVariable Long id) {
-        Order o = orders.get(id);
-        byte[] bytes = pdf.orderInvoice(o);
-        return ResponseEntity.ok()
-                .contentType(MediaType.APPLICATION_PDF)
-                .header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=invoice-" + id + ".pdf")
-                .body(bytes);
+    public void invoice(@PathVariable Long id, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        InvoiceService.Invoice invoice = invoices.get(id);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "private, no-cache");
+        InvoiceStore.StoredInvoice stored = invoice.stored();
+        if (stored != null && new ServletWebRequest(request, response).checkNotModified("\"" + stored.hash() + "\"")) return;
+
+        response.setContentType(MediaType.APPLICATION_PDF_VALUE);
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=invoice-" + id + ".pdf");
+        if (stored == null) {
+            invoices.write(invoice.unsettled(), response.getOutputStream());
+            return;
+        }
+        response.setContentLengthLong(stored.size());
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            request.setAttribute("org.apache.tomcat.sendfile.filename", stored.file().toAbsolutePath().toString());
+            request.setAttribute("org.apache.tomcat.sendfile.start", 0L);
+            request.setAttribute("org.apache.tomcat.sendfile.end", stored.size());
+        } else {
+            try (FileChannel ch = FileChannel.open(stored.file())) {
+                WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+                for (long pos = 0; pos < stored.size(); ) pos += ch.transferTo(pos, stored.size() - pos, out);
+            }
+        }
     }
 }
@@ -1,21 +1,41 @@
 package com.minimart.web;
 
+import com.minimart.dto.ProductPage;
+import com.minimart.dto.ProductQuery;
+import com.minimart.dto.ProductView;
 import com.minimart.model.Product;
+import com.minimart.service.ProductImportService;
 import com.minimart.service.ProductService;
 import jakarta.validation.Valid;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestController
 @RequestMapping("/api/products")
 public class ProductController {
     private final ProductService service;
-    public ProductController(ProductService service) { this.service = service; }
+    private final ProductImportService imports;
+    public ProductController(ProductService service, ProductImportService imports) { this.service = service; this.imports = imports; }
 
-    @GetMapping public List<Product> all() { return service.all(); }
-    @GetMapping("/{id}") public Product get(@PathVariable Long id) { return service.get(id); }
+    /** Keyset-paginated catalog; the body stays a plain array and the next page is announced in {@code X-Next-Cursor}. */
+    @GetMapping public ResponseEntity<List<Product>> all(ProductQuery q) {
+        ProductPage page = service.page(q);
+        ResponseEntity.BodyBuilder res = ResponseEntity.ok();
+        if (page.getNextCursor() != null) res.header("X-Next-Cursor", page.getNextCursor());
+        return res.body(page.getItems());
+    }
+    @GetMapping("/{id}") public ProductView get(@PathVariable Long id) { return service.get(id); }
 
     @PreAuthorize("hasAnyRole('ADMIN','MANAGER')")
     @PostMapping public Product create(@Valid @RequestBody Product p) { return service.create(p); }
@@ -25,4 +45,28 @@ public class ProductController {
 
     @PreAuthorize("hasAnyRole('ADMIN','MANAGER')")
     @DeleteMapping("/{id}") public void delete(@PathVariable Long id) { service.delete(id); }
+
+    /** Streams a CSV catalog to disk and upserts it by SKU in the background; poll the returned job for progress. */
+    @PreAuthorize("hasAnyRole('ADMIN','MANAGER')")
+    @PostMapping(path = "/import", consumes = {"text/csv", MediaType.APPLICATION_OCTET_STREAM_VALUE})
+    public ResponseEntity<?> importCsv(InputStream body) throws IOException {
+        try {
+            ProductImportService.Job job = imports.submit(body);
+            return ResponseEntity.accepted().location(URI.create("/api/products/import/" + job.getId())).body(job.describe());
+        } catch (ProductImportService.TooLargeException e) {
+            return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).body(Map.of("message", e.getMessage()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).header(HttpHeaders.RETRY_AFTER, "5")
+                    .body(Map.of("message", e.getMessage()));
+        }
+    }
+
+    @PreAuthorize("hasAnyRole('ADMIN','MANAGER')")
+    @GetMapping("/import/{id}")
+    public ResponseEntity<?> importJob(@PathVariable String id) {
+        return imports.get(id).<ResponseEntity<?>>map(j -> ResponseEntity.ok(j.describe()))
+                .orElse(ResponseEntity.notFound().build());
+    }
 }
@@ -1,18 +1,31 @@
 package com.minimart.web;
 
+import com.minimart.service.ReportCache;
+import com.minimart.service.ReportJobService;
 import com.minimart.service.ReportService;
+import com.minimart.service.SalesRollupService;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.*;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
 import java.time.*;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestController
 @RequestMapping("/api/reports")
 public class ReportController {
     private final ReportService reports;
-    public ReportController(ReportService reports) { this.reports = reports; }
+    private final SalesRollupService rollups;
+    private final ReportCache cache;
+    private final ReportJobService jobs;
+    public ReportController(ReportService reports, SalesRollupService rollups, ReportCache cache, ReportJobService jobs) {
+        this.reports = reports; this.rollups = rollups; this.cache = cache; this.jobs = jobs;
+    }
 
     @GetMapping("/sales")
     public Map<String,Object> salesJson(
@@ -23,16 +36,85 @@ public class ReportController {
                 to.plusDays(1).atStartOfDay(ZoneId.systemDefault()).toInstant());
     }
 
+    /** Rendered on the report job pool; the request thread is released while the PDF is built. */
     @GetMapping("/sales.pdf")
-    public ResponseEntity<byte[]> salesPdf(
+    public CompletableFuture<ResponseEntity<?>> salesPdf(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to
+    ) {
+        CompletableFuture<Object> pdf;
+        try {
+            pdf = jobs.render(ReportJobService.Format.PDF, from.atStartOfDay(ZoneId.systemDefault()).toInstant(),
+                    to.plusDays(1).atStartOfDay(ZoneId.systemDefault()).toInstant());
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.completedFuture(busy(e));
+        }
+        return pdf.thenApply(bytes -> ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_PDF)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=sales-report.pdf")
+                .body(bytes));
+    }
+
+    @GetMapping("/sales-detail.pdf")
+    public void salesDetailPdf(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            HttpServletResponse response
+    ) throws IOException {
+        response.setContentType(MediaType.APPLICATION_PDF_VALUE);
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=sales-report-detail.pdf");
+        reports.salesDetailPdf(from.atStartOfDay(ZoneId.systemDefault()).toInstant(),
+                to.plusDays(1).atStartOfDay(ZoneId.systemDefault()).toInstant(), response.getOutputStream());
+    }
+
+    @PreAuthorize("hasAnyRole('ADMIN')")
+    @PostMapping("/rollups/rebuild")
+    public Map<String,Object> rebuildRollups(
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to
     ) {
-        byte[] bytes = reports.salesSummaryPdf(from.atStartOfDay(ZoneId.systemDefault()).toInstant(),
+        return rollups.rebuild(from.atStartOfDay(ZoneId.systemDefault()).toInstant(),
                 to.plusDays(1).atStartOfDay(ZoneId.systemDefault()).toInstant());
+    }
+
+    @GetMapping("/cache")
+    public Map<String,Object> cacheStats() { return cache.stats(); }
+
+    @PostMapping("/jobs")
+    public ResponseEntity<?> submitJob(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "PDF") ReportJobService.Format format
+    ) {
+        try {
+            ReportJobService.Job job = jobs.submit(format, from.atStartOfDay(ZoneId.systemDefault()).toInstant(),
+                    to.plusDays(1).atStartOfDay(ZoneId.systemDefault()).toInstant());
+            return ResponseEntity.accepted().body(job.describe());
+        } catch (RejectedExecutionException e) {
+            return busy(e);
+        }
+    }
+
+    @GetMapping("/jobs/{id}")
+    public ResponseEntity<?> job(@PathVariable String id) {
+        return jobs.get(id).<ResponseEntity<?>>map(j -> ResponseEntity.ok(j.describe()))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/jobs/{id}/artifact")
+    public ResponseEntity<?> jobArtifact(@PathVariable String id) {
+        ReportJobService.Job job = jobs.get(id).orElse(null);
+        if (job == null) return ResponseEntity.notFound().build();
+        if (job.getStatus() != ReportJobService.Status.DONE) return ResponseEntity.status(HttpStatus.CONFLICT).body(job.describe());
+        if (job.getFormat() == ReportJobService.Format.JSON) return ResponseEntity.ok(job.getResult());
         return ResponseEntity.ok()
                 .contentType(MediaType.APPLICATION_PDF)
-                .header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=sales-report.pdf")
-                .body(bytes);
+                .header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=sales-report-" + id + ".pdf")
+                .body(job.getResult());
+    }
+
+    private ResponseEntity<?> busy(RejectedExecutionException e) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).header(HttpHeaders.RETRY_AFTER, "5")
+                .body(Map.of("message", e.getMessage()));
     }
 }
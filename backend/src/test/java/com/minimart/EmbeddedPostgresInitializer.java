@@ -0,0 +1,62 @@
+package com.minimart;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.springframework.boot.test.util.TestPropertyValues;
+import org.springframework.context.ApplicationContextInitializer;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Points an application context at a fresh database on a Postgres started once per test JVM from the binaries on
+ * the test classpath, so tests run on the production database without Docker or a server to set up.
+ */
+public class EmbeddedPostgresInitializer implements ApplicationContextInitializer<ConfigurableApplicationContext> {
+    private static final AtomicInteger DATABASES = new AtomicInteger();
+    private static EmbeddedPostgres postgres;
+
+    @Override
+    public void initialize(ConfigurableApplicationContext context) {
+        EmbeddedPostgres pg = postgres();
+        String database = "minimart_" + DATABASES.incrementAndGet();
+        try (Connection c = pg.getPostgresDatabase().getConnection(); Statement st = c.createStatement()) {
+            st.execute("create database " + database);
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not create the test database", e);
+        }
+        try {
+            TestPropertyValues.of(
+                    "spring.datasource.url=" + pg.getJdbcUrl("postgres", database),
+                    "spring.datasource.username=postgres",
+                    "spring.datasource.password=",
+                    "app.invoices.dir=" + Files.createTempDirectory("minimart-invoices")).applyTo(context);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static synchronized EmbeddedPostgres postgres() {
+        if (postgres == null) {
+            try {
+                postgres = EmbeddedPostgres.builder().setDataDirectory(Files.createTempDirectory("minimart-pg")).start();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            EmbeddedPostgres started = postgres;
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    started.close();
+                } catch (IOException ignored) {
+                    // The data directory is a temp directory either way.
+                }
+            }));
+        }
+        return postgres;
+    }
+}
@@ -0,0 +1,20 @@
+package com.minimart;
+
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ContextConfiguration;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * The whole application on a random port, backed by its own embedded Postgres database and counting its SQL
+ * statements for {@link QueryBudget}. Test classes carrying only this annotation share one application context and
+ * database.
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = "app.query-count.enabled=true")
+@ContextConfiguration(initializers = EmbeddedPostgresInitializer.class)
+public @interface PostgresTest {}
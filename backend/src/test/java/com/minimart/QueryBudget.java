@@ -0,0 +1,24 @@
+package com.minimart;
+
+import com.minimart.util.QueryCount;
+
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * SQL statement budgets, so an N+1 regression fails the build. Counts the statements of every thread, which takes in
+ * the server's request threads and the workers a call hands off to; tests run one at a time, so those are the
+ * call's own. Needs {@code app.query-count.enabled}, which {@link PostgresTest} sets.
+ */
+public final class QueryBudget {
+    private QueryBudget() {}
+
+    /** Runs {@code work} and fails the test if it issued more than {@code max} statements. */
+    public static <T> T atMost(int max, String what, Supplier<T> work) {
+        long before = QueryCount.total();
+        T result = work.get();
+        assertThat(QueryCount.total() - before).as("SQL statements issued by %s", what).isLessThanOrEqualTo(max);
+        return result;
+    }
+}
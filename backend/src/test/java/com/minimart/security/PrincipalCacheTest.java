@@ -0,0 +1,42 @@
+package com.minimart.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PrincipalCacheTest {
+    private static final long LIFETIME_MS = 3_600_000;
+
+    private final JwtUtil jwt = new JwtUtil("a-test-secret-that-is-long-enough-for-hs256-signing", LIFETIME_MS, 16);
+    private final PrincipalCache principals = new PrincipalCache(16, LIFETIME_MS);
+
+    @Test
+    void resolvesRolesFromClaims() {
+        String token = jwt.generate("cashier@example.com", Map.of("roles", List.of("CASHIER")));
+
+        assertThat(principals.resolve(token, jwt.verify(token)).getAuthorities())
+                .extracting(Object::toString).containsExactly("ROLE_CASHIER");
+    }
+
+    @Test
+    void revokesATokenIssuedInTheSameSecond() {
+        String token = jwt.generate("manager@example.com", Map.of("roles", List.of("MANAGER")));
+        assertThat(principals.resolve(token, jwt.verify(token))).isNotNull();
+
+        principals.revoke("manager@example.com");
+
+        assertThat(principals.resolve(token, jwt.verify(token))).isNull();
+    }
+
+    @Test
+    void revocationIsPerUser() {
+        String token = jwt.generate("admin@example.com", Map.of("roles", List.of("ADMIN")));
+
+        principals.revoke("manager@example.com");
+
+        assertThat(principals.resolve(token, jwt.verify(token))).isNotNull();
+    }
+}
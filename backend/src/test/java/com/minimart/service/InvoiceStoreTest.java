@@ -0,0 +1,56 @@
+package com.minimart.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class InvoiceStoreTest {
+    @TempDir Path root;
+
+    @Test
+    void storesUnderTheHashAndFindsItAgain() throws IOException {
+        InvoiceStore store = new InvoiceStore(root);
+        InvoiceStore.StoredInvoice stored = store.store(42L, out -> write(out, "%PDF-1.4 invoice 42"));
+
+        assertThat(store.find(42L)).contains(stored);
+        assertThat(Files.readString(stored.file())).isEqualTo("%PDF-1.4 invoice 42");
+        assertThat(files(root.resolve("tmp"))).isZero();
+    }
+
+    @Test
+    void failedRenderLeavesNoTempFile() throws IOException {
+        InvoiceStore store = new InvoiceStore(root);
+
+        assertThatThrownBy(() -> store.store(7L, out -> {
+            write(out, "%PDF-1.4 half an invoice");
+            throw new IllegalStateException("font missing");
+        })).hasMessage("font missing");
+
+        assertThat(files(root.resolve("tmp"))).isZero();
+        assertThat(store.find(7L)).isEmpty();
+    }
+
+    private static void write(OutputStream out, String text) {
+        try {
+            out.write(text.getBytes(StandardCharsets.US_ASCII));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static long files(Path dir) throws IOException {
+        try (Stream<Path> s = Files.list(dir)) {
+            return s.count();
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.minimart.service;
+
+import com.minimart.PostgresTest;
+import com.minimart.dto.CreateOrderRequest;
+import com.minimart.dto.OrderBatchResult;
+import com.minimart.model.Customer;
+import com.minimart.model.Product;
+import com.minimart.repository.CustomerRepository;
+import com.minimart.repository.ProductRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@PostgresTest
+class OrderBatchServiceTest {
+    @Autowired OrderBatchService batches;
+    @Autowired ProductRepository products;
+    @Autowired CustomerRepository customers;
+    @Autowired JdbcTemplate jdbc;
+
+    @Test
+    void replaysAChunkThatFailsToStoreSoOnlyTheOffendingOrderFails() {
+        Product product = products.save(new Product("Batch", "BATCH-1", new BigDecimal("1.00"), 100, "Batch", "Batch"));
+        Customer customer = customers.save(new Customer("Batch", "batch@example.com", "5550100"));
+        // Stands in for a constraint the batch's validation does not check.
+        jdbc.execute("""
+                create function reject_13() returns trigger language plpgsql as $$
+                begin
+                    if new.total_amount = 13 then raise exception 'total of 13 rejected'; end if;
+                    return new;
+                end $$""");
+        jdbc.execute("create trigger reject_13 before insert on orders for each row execute function reject_13()");
+        long ordersBefore = rolledUpOrders(product);
+        try {
+            List<OrderBatchResult> results = batches.create(List.of(
+                    order(customer, product, 2), order(customer, product, 13), order(customer, product, 3)));
+
+            assertThat(results).extracting(OrderBatchResult::index).containsExactly(0, 1, 2);
+            assertThat(results.get(0).orderId()).isNotNull();
+            assertThat(results.get(1).orderId()).isNull();
+            assertThat(results.get(1).error()).isNotNull();
+            assertThat(results.get(2).orderId()).isNotNull();
+            assertThat(products.findStockById(product.getId()).orElseThrow().getStock()).isEqualTo(95);
+            assertThat(rolledUpOrders(product) - ordersBefore).isEqualTo(2);
+        } finally {
+            jdbc.execute("drop trigger reject_13 on orders");
+            jdbc.execute("drop function reject_13()");
+        }
+    }
+
+    @Test
+    void rollsUpAChunkAsOneUpdatePerBucket() {
+        Product product = products.save(new Product("Rollup", "BATCH-2", new BigDecimal("2.50"), 100, "Batch", "Batch"));
+        Customer customer = customers.save(new Customer("Rollup", "rollup@example.com", "5550101"));
+
+        List<OrderBatchResult> results = batches.create(List.of(
+                order(customer, product, 1), order(customer, product, 2), order(customer, product, 4)));
+
+        assertThat(results).allSatisfy(r -> assertThat(r.error()).isNull());
+        assertThat(rolledUpOrders(product)).isEqualTo(3);
+        assertThat(jdbc.queryForObject("select sum(quantity) from sales_rollups where granularity = 'DAY' and product_id = ?",
+                Long.class, product.getId())).isEqualTo(7);
+        assertThat(jdbc.queryForObject("select sum(revenue) from sales_rollups where granularity = 'DAY' and product_id = ?",
+                BigDecimal.class, product.getId())).isEqualByComparingTo("17.50");
+    }
+
+    private long rolledUpOrders(Product product) {
+        return jdbc.queryForObject("select coalesce(sum(orders), 0) from sales_rollups where granularity = 'DAY' and product_id = ?",
+                Long.class, product.getId());
+    }
+
+    private static CreateOrderRequest order(Customer customer, Product product, int qty) {
+        CreateOrderRequest.Item item = new CreateOrderRequest.Item();
+        item.setProductId(product.getId());
+        item.setQuantity(qty);
+        CreateOrderRequest req = new CreateOrderRequest();
+        req.setCustomerId(customer.getId());
+        req.setItems(List.of(item));
+        return req;
+    }
+}
@@ -0,0 +1,98 @@
+package com.minimart.service;
+
+import com.minimart.PostgresTest;
+import com.minimart.dto.CreateOrderRequest;
+import com.minimart.model.Customer;
+import com.minimart.model.Order;
+import com.minimart.model.Product;
+import com.minimart.repository.CustomerRepository;
+import com.minimart.repository.OrderRepository;
+import com.minimart.repository.ProductRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@PostgresTest
+class SalesRollupServiceTest {
+    // Three times the default pool, so checkouts queue for connections while others roll up.
+    private static final int CHECKOUTS = 30;
+
+    @Autowired OrderService orders;
+    @Autowired OrderRepository orderRepo;
+    @Autowired ProductRepository products;
+    @Autowired CustomerRepository customers;
+    @Autowired JdbcTemplate jdbc;
+
+    @Test
+    void rollsUpCheckoutsThatOutnumberTheConnections() throws Exception {
+        Product product = products.save(new Product("Rollup pool", "ROLLUP-1", new BigDecimal("1.00"), 1000, "Rollup", "Rollup"));
+        Customer customer = customers.save(new Customer("Rollup pool", "rollup-pool@example.com", "5550103"));
+        ExecutorService pool = Executors.newFixedThreadPool(CHECKOUTS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Order>> placed = new ArrayList<>();
+        try {
+            for (int i = 0; i < CHECKOUTS; i++) {
+                placed.add(pool.submit(() -> {
+                    start.await();
+                    return orders.create(order(customer, product));
+                }));
+            }
+            start.countDown();
+            for (Future<Order> f : placed) assertThat(f.get().getId()).isNotNull();
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertThat(rolledUpOrders(product)).isEqualTo(CHECKOUTS);
+        // Spread over the bucket's shards rather than all queued on one row.
+        assertThat(jdbc.queryForObject("select count(distinct shard) from sales_rollups where granularity = 'DAY' and product_id = ?",
+                Integer.class, product.getId())).isGreaterThan(1);
+    }
+
+    @Test
+    void placesTheOrderWhenItsRollupFails() {
+        Product product = products.save(new Product("Rollup failure", "ROLLUP-2", new BigDecimal("1.00"), 10, "Rollup", "Rollup"));
+        Customer customer = customers.save(new Customer("Rollup failure", "rollup-failure@example.com", "5550104"));
+        jdbc.execute("""
+                create function reject_rollup() returns trigger language plpgsql as $$
+                begin
+                    raise exception 'rollup rejected';
+                end $$""");
+        jdbc.execute("create trigger reject_rollup before insert on sales_rollups for each row execute function reject_rollup()");
+        try {
+            Order order = orders.create(order(customer, product));
+
+            assertThat(orderRepo.existsById(order.getId())).isTrue();
+            assertThat(products.findStockById(product.getId()).orElseThrow().getStock()).isEqualTo(9);
+            assertThat(rolledUpOrders(product)).isZero();
+        } finally {
+            jdbc.execute("drop trigger reject_rollup on sales_rollups");
+            jdbc.execute("drop function reject_rollup()");
+        }
+    }
+
+    private long rolledUpOrders(Product product) {
+        return jdbc.queryForObject("select coalesce(sum(orders), 0) from sales_rollups where granularity = 'DAY' and product_id = ?",
+                Long.class, product.getId());
+    }
+
+    private static CreateOrderRequest order(Customer customer, Product product) {
+        CreateOrderRequest.Item item = new CreateOrderRequest.Item();
+        item.setProductId(product.getId());
+        item.setQuantity(1);
+        CreateOrderRequest req = new CreateOrderRequest();
+        req.setCustomerId(customer.getId());
+        req.setItems(List.of(item));
+        return req;
+    }
+}
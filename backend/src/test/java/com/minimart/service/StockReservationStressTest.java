@@ -0,0 +1,139 @@
+package com.minimart.service;
+
+import com.minimart.PostgresTest;
+import com.minimart.dto.CreateOrderRequest;
+import com.minimart.model.CatalogItem;
+import com.minimart.model.Customer;
+import com.minimart.model.Product;
+import com.minimart.repository.CustomerRepository;
+import com.minimart.repository.OrderRepository;
+import com.minimart.repository.ProductRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Many tills selling the same product until it runs out, once per reservation strategy. However the checkouts
+ * interleave, the units sold must equal the stock that left the product, which must not go below zero. The sharded
+ * strategy also has its counter invalidated continuously, as catalog edits and imports do.
+ */
+@PostgresTest
+class StockReservationStressTest {
+    private static final int THREADS = 8;
+    private static final int STOCK = 2000;
+
+    @Autowired ProductRepository products;
+    @Autowired CustomerRepository customers;
+    @Autowired OrderRepository orderRepo;
+    @Autowired EntityManager em;
+    @Autowired ApplicationEventPublisher events;
+    @Autowired PlatformTransactionManager txManager;
+    @Autowired EntityCache<Long, Customer> customerCache;
+    @Autowired EntityCache<Long, CatalogItem> productCache;
+    @Autowired JdbcTemplate jdbc;
+
+    @ParameterizedTest
+    @ValueSource(strings = {"atomic", "optimistic", "sharded"})
+    void neverSellsMoreThanTheStock(String strategy) throws Exception {
+        Product product = products.save(new Product("Stress " + strategy, "STRESS-" + strategy.toUpperCase(),
+                new BigDecimal("1.00"), STOCK, "Stress", "Stress"));
+        Customer customer = customers.save(new Customer("Stress " + strategy, "stress-" + strategy + "@example.com", "5550199"));
+        StockReservation stock = switch (strategy) {
+            case "atomic" -> new AtomicStockReservation(products);
+            case "optimistic" -> new OptimisticStockReservation(products, 50);
+            default -> new ShardedStockReservation(products, txManager, Set.of(product.getId()), 4);
+        };
+        // Not a bean, so the checkout's transaction comes from the template instead of @Transactional.
+        OrderService orders = new OrderService(orderRepo, customers, products, stock, em, events, customerCache, productCache);
+        TransactionTemplate tx = new TransactionTemplate(txManager);
+
+        AtomicInteger sold = new AtomicInteger();
+        AtomicInteger placed = new AtomicInteger();
+        List<Throwable> unexpected = new CopyOnWriteArrayList<>();
+        AtomicBoolean running = new AtomicBoolean(true);
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS + 1);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> tills = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            tills.add(pool.submit(() -> {
+                start.await();
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                int qty = 1 + random.nextInt(3);
+                for (int errors = 0; errors < 100; ) {
+                    try {
+                        int q = qty;
+                        tx.executeWithoutResult(s -> orders.create(order(customer, product, q)));
+                        sold.addAndGet(qty);
+                        placed.incrementAndGet();
+                        qty = 1 + random.nextInt(3);
+                    } catch (RuntimeException e) {
+                        String message = String.valueOf(e.getMessage());
+                        if (message.startsWith("Insufficient stock")) {
+                            // Sold out for this quantity; a till stops once not even one unit is left.
+                            if (qty == 1) break;
+                            qty = 1;
+                        } else if (!message.startsWith("Too much contention")) {
+                            unexpected.add(e);
+                            errors++;
+                        }
+                    }
+                }
+                return null;
+            }));
+        }
+        if (stock instanceof ShardedStockReservation) {
+            pool.submit(() -> {
+                while (running.get()) {
+                    stock.invalidate(product.getId());
+                    Thread.sleep(2);
+                }
+                return null;
+            });
+        }
+
+        long began = System.nanoTime();
+        start.countDown();
+        for (Future<?> till : tills) till.get(5, TimeUnit.MINUTES);
+        double seconds = (System.nanoTime() - began) / 1e9;
+        running.set(false);
+        pool.shutdown();
+        assertThat(pool.awaitTermination(1, TimeUnit.MINUTES)).isTrue();
+        if (stock instanceof ShardedStockReservation sharded) sharded.flush();
+
+        int left = products.findStockById(product.getId()).orElseThrow().getStock();
+        Long lines = jdbc.queryForObject("select coalesce(sum(quantity), 0) from order_items where product_id = ?",
+                Long.class, product.getId());
+        System.out.printf("%-10s %2d threads: %5d orders in %5.2f s = %7.0f orders/s, %d of %d units sold%n",
+                strategy, THREADS, placed.get(), seconds, placed.get() / seconds, sold.get(), STOCK);
+
+        assertThat(unexpected).isEmpty();
+        assertThat(left).isGreaterThanOrEqualTo(0);
+        assertThat(sold.get()).isEqualTo(STOCK - left);
+        assertThat(lines).isEqualTo(sold.get());
+    }
+
+    private static CreateOrderRequest order(Customer customer, Product product, int qty) {
+        CreateOrderRequest.Item item = new CreateOrderRequest.Item();
+        item.setProductId(product.getId());
+        item.setQuantity(qty);
+        CreateOrderRequest req = new CreateOrderRequest();
+        req.setCustomerId(customer.getId());
+        req.setItems(List.of(item));
+        return req;
+    }
+}
@@ -0,0 +1,34 @@
+package com.minimart.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CsvReaderTest {
+    @Test
+    void readsQuotedFieldsAcrossLines() throws IOException {
+        CsvReader csv = new CsvReader(new StringReader("sku,name\r\nA-1,\"Apple, \"\"red\"\"\nfresh\"\n\nB-2,Banana\n"), 100);
+
+        assertThat(csv.next()).containsExactly("sku", "name");
+        assertThat(csv.next()).containsExactly("A-1", "Apple, \"red\"\nfresh");
+        assertThat(csv.recordLine()).isEqualTo(2);
+        assertThat(csv.next()).containsExactly("B-2", "Banana");
+        assertThat(csv.recordLine()).isEqualTo(5);
+        assertThat(csv.next()).isNull();
+    }
+
+    @Test
+    void failsOnARecordOverTheLimit() throws IOException {
+        CsvReader csv = new CsvReader(new StringReader("a,b\n\"" + "x".repeat(20) + "\n"), 10);
+
+        assertThat(csv.next()).isEqualTo(List.of("a", "b"));
+        assertThatThrownBy(csv::next)
+                .isInstanceOf(CsvReader.MalformedException.class)
+                .hasMessageContaining("line 2");
+    }
+}
@@ -0,0 +1,38 @@
+package com.minimart.util;
+
+import com.minimart.PostgresTest;
+import com.minimart.model.Sequences;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@PostgresTest
+class IdSequenceMigrationTest {
+    @Autowired IdSequenceMigration migration;
+    @Autowired JdbcTemplate jdbc;
+
+    @Test
+    void dropsAnIdentityDefault() {
+        jdbc.execute("alter table customers alter column id add generated by default as identity");
+
+        migration.afterPropertiesSet();
+
+        assertThat(jdbc.queryForObject("select attidentity::text from pg_attribute " +
+                "where attrelid = 'customers'::regclass and attname = 'id'", String.class)).isEmpty();
+    }
+
+    @Test
+    void advancesASequenceThatWasNeverCalled() {
+        long max = jdbc.queryForObject("select max(id) from products", Long.class);
+        assertThat(max).isPositive();
+        // As created: nextval would return 1 and hand out the ids from 1.
+        jdbc.execute("select setval('products_seq', 1, false)");
+
+        migration.afterPropertiesSet();
+
+        long next = jdbc.queryForObject("select nextval('products_seq')", Long.class);
+        assertThat(next - Sequences.ALLOCATION_SIZE).isGreaterThanOrEqualTo(max);
+    }
+}
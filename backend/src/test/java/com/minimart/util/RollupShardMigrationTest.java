@@ -0,0 +1,31 @@
+package com.minimart.util;
+
+import com.minimart.PostgresTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@PostgresTest
+class RollupShardMigrationTest {
+    @Autowired RollupShardMigration migration;
+    @Autowired JdbcTemplate jdbc;
+
+    @Test
+    void addsTheShardToAnUnshardedKey() {
+        // As the schema update leaves a table created before sharding.
+        jdbc.execute("alter table order_rollups drop constraint " + primaryKey() + ", add primary key (granularity, bucket_start)");
+
+        migration.afterPropertiesSet();
+
+        assertThat(jdbc.queryForObject("select pg_get_constraintdef(oid) from pg_constraint " +
+                "where conrelid = 'order_rollups'::regclass and contype = 'p'", String.class))
+                .isEqualTo("PRIMARY KEY (granularity, bucket_start, shard)");
+    }
+
+    private String primaryKey() {
+        return jdbc.queryForObject("select conname::text from pg_constraint " +
+                "where conrelid = 'order_rollups'::regclass and contype = 'p'", String.class);
+    }
+}
@@ -0,0 +1,40 @@
+package com.minimart.web;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.minimart.PostgresTest;
+import com.minimart.model.Customer;
+import com.minimart.model.Product;
+import com.minimart.repository.CustomerRepository;
+import com.minimart.repository.ProductRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@PostgresTest
+class CatalogCacheTest {
+    @Autowired TestRestTemplate http;
+    @Autowired ProductRepository products;
+    @Autowired CustomerRepository customers;
+
+    @Test
+    void servesCachedCatalogFieldsWithCurrentStock() {
+        Product product = products.save(new Product("Cached", "CACHE-1", new BigDecimal("4.00"), 10, "Cache", "Cache"));
+        Customer customer = customers.save(new Customer("Cached", "cached@example.com", "5550102"));
+        assertThat(http.getForObject("/api/products/" + product.getId(), JsonNode.class).get("stock").asInt()).isEqualTo(10);
+
+        JsonNode order = http.postForObject("/api/orders", Map.of("customerId", customer.getId(),
+                "items", List.of(Map.of("productId", product.getId(), "quantity", 3))), JsonNode.class);
+
+        JsonNode line = order.get("items").get(0).get("product");
+        assertThat(line.get("sku").asText()).isEqualTo("CACHE-1");
+        assertThat(line.get("price").decimalValue()).isEqualByComparingTo("4.00");
+        assertThat(line.has("stock")).isFalse();
+        assertThat(http.getForObject("/api/products/" + product.getId(), JsonNode.class).get("stock").asInt()).isEqualTo(7);
+    }
+}
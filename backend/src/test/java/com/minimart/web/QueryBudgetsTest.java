@@ -0,0 +1,230 @@
+package com.minimart.web;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.minimart.PostgresTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static com.minimart.QueryBudget.atMost;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The most SQL statements one request of every route may issue, background work it starts included. The fixtures
+ * have several lines per order and several orders per batch, so a query per line or per order shows up as a
+ * failure here. Budgets hold for a cold cache; a warm one only issues fewer.
+ */
+@PostgresTest
+class QueryBudgetsTest {
+    private static final int LINES = 5;
+    private static final int BATCH = 20;
+    // Fetching the next block of ids from a sequence, which an insert needs once every Sequences.ALLOCATION_SIZE ids.
+    private static final int SEQUENCE = 1;
+
+    @LocalServerPort int port;
+    @Autowired ObjectMapper json;
+    @Autowired JdbcTemplate jdbc;
+
+    private final HttpClient http = HttpClient.newHttpClient();
+    private String token;
+    private final String range = "from=" + LocalDate.now().minusDays(1) + "&to=" + LocalDate.now();
+
+    @BeforeEach
+    void login() {
+        token = read(send("POST", "/api/auth/login", Map.of("email", "admin@minimart.local", "password", "Admin@123"))).get("token").asText();
+    }
+
+    @Test
+    void auth() {
+        ok(atMost(2, "POST /api/auth/login", () ->
+                send("POST", "/api/auth/login", Map.of("email", "admin@minimart.local", "password", "Admin@123"))));
+        ok(atMost(0, "GET /api/auth/stats", () -> send("GET", "/api/auth/stats", null)));
+        // Refused by design: users are created through /api/users.
+        assertThat(atMost(0, "POST /api/auth/register", () -> send("POST", "/api/auth/register",
+                Map.of("email", unique("register") + "@example.com", "fullName", "Register", "password", "Secret@123",
+                        "roles", List.of("CASHIER")))).statusCode()).isEqualTo(403);
+    }
+
+    @Test
+    void products() {
+        long id = id(ok(atMost(1 + SEQUENCE, "POST /api/products", () -> send("POST", "/api/products", product(unique("P"))))));
+        ok(atMost(1, "GET /api/products", () -> send("GET", "/api/products?limit=50", null)));
+        ok(atMost(2, "GET /api/products/{id}", () -> send("GET", "/api/products/" + id, null)));
+        ok(atMost(2, "PUT /api/products/{id}", () -> send("PUT", "/api/products/" + id, product(unique("P")))));
+        ok(atMost(2, "DELETE /api/products/{id}", () -> send("DELETE", "/api/products/" + id, null)));
+
+        StringBuilder csv = new StringBuilder("sku,name,price,stock\r\n");
+        for (int i = 0; i < 50; i++) csv.append(unique("IMPORT")).append(",Imported ").append(i).append(",3.50,10\r\n");
+        String importId = atMost(2, "POST /api/products/import", () -> {
+            String job = read(ok(send("POST", "/api/products/import", csv.toString(), "text/csv"))).get("id").asText();
+            awaitDone("/api/products/import/" + job);
+            return job;
+        });
+        ok(atMost(0, "GET /api/products/import/{id}", () -> send("GET", "/api/products/import/" + importId, null)));
+    }
+
+    @Test
+    void customers() {
+        long id = id(ok(atMost(1 + SEQUENCE, "POST /api/customers", () -> send("POST", "/api/customers", customer(unique("c"))))));
+        ok(atMost(1, "GET /api/customers", () -> send("GET", "/api/customers", null)));
+        ok(atMost(1, "GET /api/customers/{id}", () -> send("GET", "/api/customers/" + id, null)));
+        ok(atMost(2, "PUT /api/customers/{id}", () -> send("PUT", "/api/customers/" + id, customer(unique("c")))));
+        ok(atMost(2, "DELETE /api/customers/{id}", () -> send("DELETE", "/api/customers/" + id, null)));
+    }
+
+    @Test
+    void orders() {
+        Map<String, Object> order = order();
+        // A sequence nobody drew from yet hands out a single id first, which would cost a second fetch.
+        ok(send("POST", "/api/orders", order()));
+        long id = id(ok(atMost(9 + 2 * SEQUENCE, "POST /api/orders", () -> send("POST", "/api/orders", order))));
+        ok(atMost(9 + 2 * SEQUENCE, "POST /api/orders/batch", () ->
+                send("POST", "/api/orders/batch", Collections.nCopies(BATCH, order))));
+        ok(atMost(1, "GET /api/orders", () -> send("GET", "/api/orders?limit=50&customerId=" + order.get("customerId"), null)));
+        ok(atMost(1, "GET /api/orders/{id}", () -> send("GET", "/api/orders/" + id, null)));
+        ok(atMost(1, "GET /api/orders/{id}/invoice.pdf", () -> send("GET", "/api/orders/" + id + "/invoice.pdf", null)));
+        // Invoices render concurrently, each loading its own order; the budget bounds that to one select per order.
+        int inRange = jdbc.queryForObject("select count(*) from orders where created_at >= ?", Integer.class,
+                Timestamp.valueOf(LocalDate.now().minusDays(1).atStartOfDay()));
+        ok(atMost(1 + inRange, "GET /api/orders/invoices.zip", () -> send("GET", "/api/orders/invoices.zip?" + range, null)));
+    }
+
+    @Test
+    void reports() {
+        send("POST", "/api/orders", order());
+        // A range nobody asked for yet, so the summary is computed rather than served from the report cache.
+        String fresh = "from=" + LocalDate.now().minusDays(400) + "&to=" + LocalDate.now();
+        ok(atMost(7, "GET /api/reports/sales", () -> send("GET", "/api/reports/sales?" + fresh, null)));
+        ok(atMost(7, "GET /api/reports/sales.pdf", () -> send("GET", "/api/reports/sales.pdf?" + range, null)));
+        ok(atMost(1, "GET /api/reports/sales-detail.pdf", () -> send("GET", "/api/reports/sales-detail.pdf?" + range, null)));
+        ok(atMost(8, "POST /api/reports/rollups/rebuild", () ->
+                send("POST", "/api/reports/rollups/rebuild?from=" + LocalDate.now().minusDays(3) + "&to=" + LocalDate.now().minusDays(1), null)));
+        ok(atMost(0, "GET /api/reports/cache", () -> send("GET", "/api/reports/cache", null)));
+        String job = atMost(7, "POST /api/reports/jobs", () -> {
+            String id = read(ok(send("POST", "/api/reports/jobs?format=JSON&from=" + LocalDate.now().minusDays(30) + "&to=" + LocalDate.now(), null)))
+                    .get("id").asText();
+            awaitDone("/api/reports/jobs/" + id);
+            return id;
+        });
+        ok(atMost(0, "GET /api/reports/jobs/{id}", () -> send("GET", "/api/reports/jobs/" + job, null)));
+        ok(atMost(0, "GET /api/reports/jobs/{id}/artifact", () -> send("GET", "/api/reports/jobs/" + job + "/artifact", null)));
+    }
+
+    @Test
+    void users() {
+        Map<String, Object> user = Map.of("email", unique("user") + "@example.com", "fullName", "Budget user",
+                "password", "Secret@123", "roles", List.of("CASHIER", "MANAGER"));
+        long id = id(ok(atMost(3 + SEQUENCE, "POST /api/users", () -> send("POST", "/api/users", user))));
+        ok(atMost(1, "GET /api/users", () -> send("GET", "/api/users", null)));
+        ok(atMost(1, "GET /api/users/{id}", () -> send("GET", "/api/users/" + id, null)));
+        ok(atMost(4, "PUT /api/users/{id}", () -> send("PUT", "/api/users/" + id, user)));
+        ok(atMost(4, "PATCH /api/users/{id}", () -> send("PATCH", "/api/users/" + id, user)));
+        ok(atMost(3, "DELETE /api/users/{id}", () -> send("DELETE", "/api/users/" + id, null)));
+    }
+
+    @Test
+    void exports() {
+        send("POST", "/api/orders", order());
+        ok(atMost(1, "GET /api/exports/products.{ext}", () -> send("GET", "/api/exports/products.csv", null)));
+        ok(atMost(1, "GET /api/exports/customers.{ext}", () -> send("GET", "/api/exports/customers.ndjson", null)));
+        ok(atMost(1, "GET /api/exports/orders.{ext}", () -> send("GET", "/api/exports/orders.csv", null)));
+    }
+
+    /** A fresh customer buying {@link #LINES} fresh products, created outside any budget. */
+    private Map<String, Object> order() {
+        long customerId = id(ok(send("POST", "/api/customers", customer(unique("buyer")))));
+        List<Map<String, Object>> items = new ArrayList<>();
+        for (int i = 0; i < LINES; i++) {
+            items.add(Map.of("productId", id(ok(send("POST", "/api/products", product(unique("L"))))), "quantity", 1));
+        }
+        return Map.of("customerId", customerId, "items", items);
+    }
+
+    private static Map<String, Object> product(String sku) {
+        return Map.of("name", "Budget " + sku, "sku", sku, "price", 2.5, "stock", 10_000, "category", "Budget", "supplier", "Budget");
+    }
+
+    private static Map<String, Object> customer(String name) {
+        return Map.of("name", name, "email", name + "@example.com", "phone", "5550100");
+    }
+
+    private static String unique(String prefix) {
+        return prefix + "-" + UUID.randomUUID().toString().substring(0, 8);
+    }
+
+    private void awaitDone(String path) {
+        for (int i = 0; i < 600; i++) {
+            String status = read(ok(send("GET", path, null))).get("status").asText();
+            if (status.equals("DONE")) return;
+            assertThat(status).isNotEqualTo("FAILED");
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+        }
+        throw new IllegalStateException(path + " did not finish");
+    }
+
+    private HttpResponse<byte[]> send(String method, String path, Object body) {
+        try {
+            return send(method, path, body == null ? null : json.writeValueAsString(body), "application/json");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private HttpResponse<byte[]> send(String method, String path, String body, String contentType) {
+        HttpRequest.Builder req = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path));
+        if (token != null) req.header("Authorization", "Bearer " + token);
+        if (body == null) {
+            req.method(method, HttpRequest.BodyPublishers.noBody());
+        } else {
+            req.header("Content-Type", contentType).method(method, HttpRequest.BodyPublishers.ofString(body));
+        }
+        try {
+            return http.send(req.build(), HttpResponse.BodyHandlers.ofByteArray());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static HttpResponse<byte[]> ok(HttpResponse<byte[]> res) {
+        assertThat(res.statusCode()).as("%s %s: %s", res.request().method(), res.request().uri(), new String(res.body()))
+                .isBetween(200, 299);
+        return res;
+    }
+
+    private long id(HttpResponse<byte[]> res) {
+        return read(res).get("id").asLong();
+    }
+
+    private JsonNode read(HttpResponse<byte[]> res) {
+        try {
+            return json.readTree(res.body());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.minimart.bench;
+
+import org.openjdk.jmh.Main;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Runs JMH with results written as JSON to {@code jmh-result.json} unless the caller picks another format or file,
+ * so every run leaves a file that can be diffed against the previous release.
+ */
+public final class BenchmarkMain {
+    private BenchmarkMain() {}
+
+    public static void main(String[] args) throws Exception {
+        List<String> argv = new ArrayList<>(Arrays.asList(args));
+        if (!argv.contains("-rf")) argv.addAll(List.of("-rf", "json"));
+        if (!argv.contains("-rff")) argv.addAll(List.of("-rff", "jmh-result.json"));
+        Main.main(argv.toArray(String[]::new));
+    }
+}
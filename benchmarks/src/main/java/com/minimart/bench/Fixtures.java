@@ -0,0 +1,87 @@
+package com.minimart.bench;
+
+import com.minimart.dto.CreateOrderRequest;
+import com.minimart.dto.OrderView;
+import com.minimart.model.*;
+
+import java.lang.reflect.Field;
+import java.math.BigDecimal;
+import java.util.*;
+
+/** Detached entity graphs with ids and timestamps filled in, as they would come back from the database. */
+public final class Fixtures {
+    private Fixtures() {}
+
+    public static List<Product> products(int n) {
+        Random random = new Random(42);
+        List<Product> products = new ArrayList<>(n);
+        for (int i = 1; i <= n; i++) {
+            Product p = new Product("Product " + i, "SKU-" + i,
+                    BigDecimal.valueOf(50 + random.nextInt(50_000), 2), random.nextInt(1000),
+                    "Category " + (i % 20), "Supplier " + (i % 7));
+            setId(p, (long) i);
+            p.prePersist();
+            products.add(p);
+        }
+        return products;
+    }
+
+    public static Customer customer(long id) {
+        Customer c = new Customer("Customer " + id, "customer" + id + "@example.com", "555-" + id);
+        setId(c, id);
+        c.prePersist();
+        return c;
+    }
+
+    public static List<CreateOrderRequest.Item> basket(List<Product> products, int lines, Random random) {
+        List<CreateOrderRequest.Item> items = new ArrayList<>(lines);
+        for (int i = 0; i < lines; i++) {
+            CreateOrderRequest.Item item = new CreateOrderRequest.Item();
+            item.setProductId(products.get(random.nextInt(products.size())).getId());
+            item.setQuantity(1 + random.nextInt(5));
+            items.add(item);
+        }
+        return items;
+    }
+
+    public static Order order(long id, Customer customer, List<Product> products, int lines, Random random) {
+        Order order = new Order(customer);
+        setId(order, id);
+        order.prePersist();
+        BigDecimal total = BigDecimal.ZERO;
+        for (int i = 0; i < lines; i++) {
+            Product p = products.get(random.nextInt(products.size()));
+            int qty = 1 + random.nextInt(5);
+            BigDecimal sub = p.getPrice().multiply(BigDecimal.valueOf(qty));
+            OrderItem item = new OrderItem(p, order, qty, p.getPrice(), sub);
+            setId(item, id * 100 + i);
+            order.getItems().add(item);
+            total = total.add(sub);
+        }
+        order.setTotalAmount(total);
+        order.setStatus(OrderStatus.PAID);
+        return order;
+    }
+
+    /** The read model the order would load as. */
+    public static OrderView view(Order order) {
+        Customer c = order.getCustomer();
+        List<OrderView.Line> lines = new ArrayList<>(order.getItems().size());
+        for (OrderItem i : order.getItems()) {
+            lines.add(new OrderView.Line(i.getId(), i.getProduct().getId(), i.getProduct().getSku(), i.getProduct().getName(),
+                    i.getQuantity(), i.getUnitPrice(), i.getSubTotal()));
+        }
+        return new OrderView(order.getId(), order.getCreatedAt(), order.getStatus(), order.getTotalAmount(),
+                new OrderView.Customer(c.getId(), c.getName(), c.getEmail(), c.getPhone()), lines);
+    }
+
+    private static void setId(Object entity, Long id) {
+        try {
+            Field f = entity.getClass().getDeclaredField("id");
+            f.setAccessible(true);
+            f.set(entity, id);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.minimart.bench;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.minimart.model.Customer;
+import com.minimart.model.Order;
+import com.minimart.model.Product;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/** Response bodies of the catalog and order endpoints, with the mapper configured the way the application has it. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonBenchmark {
+    @Param({"100", "1000"})
+    int size;
+
+    private ObjectMapper mapper;
+    private List<Product> products;
+    private List<Order> orders;
+
+    @Setup
+    public void setup() {
+        mapper = Jackson2ObjectMapperBuilder.json().featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS).build();
+        products = Fixtures.products(size);
+        Random random = new Random(11);
+        Customer customer = Fixtures.customer(1);
+        orders = new ArrayList<>(size);
+        for (int i = 1; i <= size; i++) orders.add(Fixtures.order(i, customer, products, 1 + random.nextInt(10), random));
+    }
+
+    @Benchmark
+    public byte[] products() throws Exception {
+        return mapper.writeValueAsBytes(products);
+    }
+
+    @Benchmark
+    public byte[] orders() throws Exception {
+        return mapper.writeValueAsBytes(orders);
+    }
+}
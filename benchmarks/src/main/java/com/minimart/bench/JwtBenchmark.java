@@ -0,0 +1,46 @@
+package com.minimart.bench;
+
+import com.minimart.security.JwtUtil;
+import io.jsonwebtoken.Claims;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/** Tokens per second for issuing, for a full signature check, and for a repeat token answered from the cache. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtBenchmark {
+    private static final String SECRET = "benchmark-secret-benchmark-secret-benchmark-secret";
+
+    private JwtUtil cached;
+    private JwtUtil uncached;
+    private String token;
+
+    @Setup
+    public void setup() {
+        cached = new JwtUtil(SECRET, 3_600_000, 4096);
+        uncached = new JwtUtil(SECRET, 3_600_000, 0);
+        token = cached.generate("cashier@minimart.local", Map.of("roles", Set.of("CASHIER")));
+    }
+
+    @Benchmark
+    public String generate() {
+        return cached.generate("cashier@minimart.local", Map.of("roles", Set.of("CASHIER")));
+    }
+
+    @Benchmark
+    public boolean validate() {
+        return uncached.validate(token);
+    }
+
+    @Benchmark
+    public Claims verifyCached() {
+        return cached.verify(token);
+    }
+}
@@ -0,0 +1,34 @@
+package com.minimart.bench;
+
+import com.minimart.dto.OrderView;
+import com.minimart.service.PdfService;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.OutputStream;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/** Invoice rendering alone, written to a discarding stream so disk and network do not enter the figure. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PdfInvoiceBenchmark {
+    @Param({"5", "50"})
+    int lines;
+
+    private final PdfService pdf = new PdfService();
+    private OrderView order;
+
+    @Setup
+    public void setup() {
+        order = Fixtures.view(Fixtures.order(1, Fixtures.customer(1), Fixtures.products(200), lines, new Random(7)));
+    }
+
+    @Benchmark
+    public void orderInvoice() {
+        pdf.orderInvoice(order, OutputStream.nullOutputStream());
+    }
+}
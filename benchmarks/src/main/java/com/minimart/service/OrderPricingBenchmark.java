@@ -0,0 +1,45 @@
+package com.minimart.service;
+
+import com.minimart.bench.Fixtures;
+import com.minimart.dto.CreateOrderRequest;
+import com.minimart.model.Order;
+import com.minimart.model.OrderItem;
+import com.minimart.model.Product;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import java.util.concurrent.TimeUnit;
+
+/** Checkout's in-memory part: pricing the basket and building its order lines. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OrderPricingBenchmark {
+    @Param({"1", "10", "100"})
+    int lines;
+
+    private Map<Long, Product> products;
+    private List<CreateOrderRequest.Item> basket;
+    private Order order;
+
+    @Setup
+    public void setup() {
+        List<Product> catalog = Fixtures.products(500);
+        products = catalog.stream().collect(Collectors.toMap(Product::getId, Function.identity()));
+        basket = Fixtures.basket(catalog, lines, new Random(3));
+        order = new Order(Fixtures.customer(1));
+    }
+
+    @Benchmark
+    public BigDecimal priceLines() {
+        List<OrderItem> out = new ArrayList<>(basket.size());
+        return OrderService.priceLines(order, basket, products, out);
+    }
+}
@@ -0,0 +1,53 @@
+package com.minimart.service;
+
+import com.minimart.bench.Fixtures;
+import com.minimart.model.Order;
+import com.minimart.model.OrderItem;
+import com.minimart.model.Product;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Folding an order graph into the sales summary: per-order totals, per-product counters and the sorted product
+ * list, as {@link ReportService} does over each range segment.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReportAggregationBenchmark {
+    @Param({"1000", "100000"})
+    int orders;
+
+    private List<Order> graph;
+    private Map<Long, String> names;
+
+    @Setup
+    public void setup() {
+        List<Product> products = Fixtures.products(500);
+        names = new HashMap<>();
+        for (Product p : products) names.put(p.getId(), p.getName());
+        Random random = new Random(5);
+        graph = new ArrayList<>(orders);
+        for (int i = 1; i <= orders; i++) {
+            graph.add(Fixtures.order(i, Fixtures.customer(1 + i % 100), products, 1 + random.nextInt(8), random));
+        }
+    }
+
+    @Benchmark
+    public Map<String, Object> summarize() {
+        ReportService.Totals totals = new ReportService.Totals();
+        for (Order o : graph) {
+            totals.addOrders(1, o.getTotalAmount());
+            for (OrderItem i : o.getItems()) {
+                totals.addProduct(i.getProduct().getId(), 1, i.getQuantity(), i.getSubTotal());
+            }
+        }
+        return totals.toSummary(Instant.EPOCH, Instant.EPOCH, names);
+    }
+}
@@ -0,0 +1,13 @@
+import api from './axios';
+
+// The catalog is served in keyset pages; follow X-Next-Cursor until the last one.
+export const fetchAllProducts = async () => {
+  const products = [];
+  let cursor;
+  do {
+    const res = await api.get('/api/products', { params: { limit: 1000, cursor } });
+    products.push(...res.data);
+    cursor = res.headers['x-next-cursor'];
+  } while (cursor);
+  return products;
+};
@@ -1,6 +1,7 @@
 import React, { useState, useMemo } from 'react';
 import { useQuery, useMutation, useQueryClient } from '@tanstack/react-query';
 import api from '../api/axios';
+import { fetchAllProducts } from '../api/products';
 
 import {
   Paper, Typography, Stack, TextField, MenuItem, Button, Grid, Box,
@@ -9,7 +10,6 @@ import {
 } from '@mui/material';
 import { AddShoppingCart, Add, Delete, ReceiptLong } from '@mui/icons-material';
 
-const fetchProducts = async () => (await api.get('/api/products')).data;
 const fetchCustomers = async () => (await api.get('/api/customers')).data;
 
 const OrderItemRow = ({ item, index, products, onUpdate, onRemove, disabled }) => {
@@ -68,7 +68,7 @@ export default function Orders() {
 
   const { data: products = [], isLoading: productsLoading, isError: productsError } = useQuery({
     queryKey: ['products'],
-    queryFn: fetchProducts
+    queryFn: fetchAllProducts
   });
   const { data: customers = [], isLoading: customersLoading, isError: customersError } = useQuery({
     queryKey: ['customers'],
@@ -1,6 +1,7 @@
 import React, { useState } from 'react'
 import { useQuery, useMutation, useQueryClient } from '@tanstack/react-query'
 import api from '../api/axios'
+import { fetchAllProducts } from '../api/products'
 import { useAuth } from '../context/AuthContext'
 
 import {
@@ -11,8 +12,6 @@ import {
 
 import { Add, Delete, Edit, Inventory2, WarningAmber } from '@mui/icons-material'
 
-const fetchProducts = async () => (await api.get('/api/products')).data
-
 const EMPTY_FORM = { id: null, name: '', sku: '', price: '0.00', stock: 0, category: '', supplier: '', imageUrl: '' };
 
 const TableLoader = ({ columns }) => (
@@ -36,7 +35,7 @@ export default function Products() {
   const [productToDelete, setProductToDelete] = useState(null);
   const [snackbar, setSnackbar] = useState({ open: false, message: '', severity: 'success' });
 
-  const { data: products = [], isLoading, isError } = useQuery({ queryKey: ['products'], queryFn: fetchProducts });
+  const { data: products = [], isLoading, isError } = useQuery({ queryKey: ['products'], queryFn: fetchAllProducts });
 
   const saveMutation = useMutation({
     mutationFn: (product) => 
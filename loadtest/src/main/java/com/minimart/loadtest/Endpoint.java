@@ -0,0 +1,13 @@
+package com.minimart.loadtest;
+
+/** The request kinds in the traffic mix, reported separately. */
+enum Endpoint {
+    CHECKOUT("POST /api/orders"),
+    BROWSE("GET /api/products"),
+    INVOICE("GET /api/orders/{id}/invoice.pdf"),
+    REPORT("GET /api/reports/sales");
+
+    final String label;
+
+    Endpoint(String label) { this.label = label; }
+}
@@ -0,0 +1,149 @@
+package com.minimart.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.minimart.model.Customer;
+import com.minimart.model.Product;
+import com.minimart.repository.CustomerRepository;
+import com.minimart.repository.ProductRepository;
+import org.springframework.context.ApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * Write throughput in rows per second: bulk seeding through the JPA repositories ({@code saveAll} in chunks), a CSV
+ * catalog through {@code POST /api/products/import}, first as new and then as changed products, and order creation
+ * through {@code POST /api/orders} and {@code POST /api/orders/batch}. Sizes come from {@code --products} and
+ * {@code --customers}; orders have {@value #LINES} lines each.
+ */
+final class IngestBenchmark {
+    private static final int LINES = 5;
+    private static final int CHUNK = 1000;
+    private static final int SINGLE_ORDERS = 500;
+    private static final int BATCHES = 10;
+    private static final int BATCH_SIZE = 500;
+
+    private final ApplicationContext app;
+    private final MinimartClient client;
+    private final LoadTestOptions opts;
+
+    IngestBenchmark(ApplicationContext app, MinimartClient client, LoadTestOptions opts) {
+        this.app = app; this.client = client; this.opts = opts;
+    }
+
+    Map<String, Object> run() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("seed", seed());
+        result.putAll(importCatalog());
+
+        List<Long> productIds = new ArrayList<>();
+        for (int i = 0; i < LINES; i++) {
+            productIds.add(id(client.post("/api/products", Map.of("name", "Ingest product " + i, "sku", "INGEST-" + i,
+                    "price", 2.5, "stock", 100_000_000, "category", "Ingest", "supplier", "Ingest"))));
+        }
+        long customerId = id(client.post("/api/customers", Map.of("name", "Ingest customer", "email", "ingest@example.com", "phone", "555")));
+        List<Map<String, Object>> items = new ArrayList<>();
+        for (Long p : productIds) items.add(Map.of("productId", p, "quantity", 1));
+        Map<String, Object> order = Map.of("customerId", customerId, "items", items);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < SINGLE_ORDERS; i++) id(client.post("/api/orders", order));
+        result.put("ordersSingle", rate(SINGLE_ORDERS * (1 + LINES), start));
+
+        List<Map<String, Object>> batch = Collections.nCopies(BATCH_SIZE, order);
+        start = System.nanoTime();
+        for (int i = 0; i < BATCHES; i++) {
+            HttpResponse<byte[]> res = client.post("/api/orders/batch", batch);
+            if (res.statusCode() != 200) throw new IllegalStateException("HTTP " + res.statusCode() + " from /api/orders/batch");
+        }
+        result.put("ordersBatch", rate(BATCHES * BATCH_SIZE * (1 + LINES), start));
+        return result;
+    }
+
+    private Map<String, Object> seed() {
+        ProductRepository products = app.getBean(ProductRepository.class);
+        CustomerRepository customers = app.getBean(CustomerRepository.class);
+        TransactionTemplate tx = new TransactionTemplate(app.getBean(PlatformTransactionManager.class));
+        String run = UUID.randomUUID().toString().substring(0, 8);
+
+        long start = System.nanoTime();
+        for (int from = 0; from < opts.products(); from += CHUNK) {
+            List<Product> chunk = new ArrayList<>(CHUNK);
+            for (int n = from; n < Math.min(from + CHUNK, opts.products()); n++) {
+                chunk.add(new Product("Seed product " + n, "SEED-" + run + "-" + n, BigDecimal.valueOf(100 + n % 5000, 2),
+                        1000, "Category " + (n % 20), "Supplier " + (n % 7)));
+            }
+            tx.executeWithoutResult(s -> products.saveAll(chunk));
+        }
+        for (int from = 0; from < opts.customers(); from += CHUNK) {
+            List<Customer> chunk = new ArrayList<>(CHUNK);
+            for (int n = from; n < Math.min(from + CHUNK, opts.customers()); n++) {
+                chunk.add(new Customer("Seed customer " + n, "seed-" + run + "-" + n + "@example.com", "555" + n));
+            }
+            tx.executeWithoutResult(s -> customers.saveAll(chunk));
+        }
+        return rate(opts.products() + opts.customers(), start);
+    }
+
+    private Map<String, Object> importCatalog() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        String run = UUID.randomUUID().toString().substring(0, 8);
+        try {
+            Path csv = Files.createTempFile("ingest-", ".csv");
+            try {
+                for (String pass : List.of("importInsert", "importUpdate")) {
+                    try (BufferedWriter w = Files.newBufferedWriter(csv)) {
+                        w.write("sku,name,price,stock,category,supplier\r\n");
+                        for (int n = 0; n < opts.products(); n++) {
+                            int price = pass.equals("importInsert") ? 100 + n % 5000 : 150 + n % 5000;
+                            w.write("IMPORT-" + run + "-" + n + ",\"Imported product " + n + ", boxed\"," + BigDecimal.valueOf(price, 2)
+                                    + ",500,Category " + (n % 20) + ",Supplier " + (n % 7) + "\r\n");
+                        }
+                    }
+                    long start = System.nanoTime();
+                    HttpResponse<byte[]> res = client.post("/api/products/import", csv);
+                    if (res.statusCode() != 202) throw new IllegalStateException("HTTP " + res.statusCode() + " from /api/products/import");
+                    String id = client.read(res).get("id").asText();
+                    JsonNode job;
+                    while ((job = client.read(client.get("/api/products/import/" + id))).get("status").asText().matches("QUEUED|RUNNING")) {
+                        Thread.sleep(50);
+                    }
+                    if (!job.get("status").asText().equals("DONE") || job.get("failed").asLong() > 0) {
+                        throw new IllegalStateException("Import did not complete cleanly: " + job);
+                    }
+                    result.put(pass, rate(opts.products(), start));
+                }
+            } finally {
+                Files.deleteIfExists(csv);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+        return result;
+    }
+
+    private static Map<String, Object> rate(long rows, long startNanos) {
+        double seconds = (System.nanoTime() - startNanos) / 1e9;
+        Map<String, Object> res = new LinkedHashMap<>();
+        res.put("rows", rows);
+        res.put("seconds", seconds);
+        res.put("rowsPerSecond", rows / seconds);
+        return res;
+    }
+
+    private long id(HttpResponse<byte[]> res) {
+        if (res.statusCode() / 100 != 2) throw new IllegalStateException("HTTP " + res.statusCode() + " from " + res.uri());
+        return client.read(res).get("id").asLong();
+    }
+}
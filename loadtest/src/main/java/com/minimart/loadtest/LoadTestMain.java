@@ -0,0 +1,100 @@
+package com.minimart.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.minimart.MinimartApplication;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Boots the backend against a throwaway local Postgres, drives it with the configured request mix and prints
+ * throughput, latency percentiles and error rate per endpoint; the same figures are written as JSON to
+ * {@code --output}. Needs no network or Docker, only the Postgres binaries bundled on the classpath.
+ *
+ * <pre>
+ * java -jar loadtest/target/loadtest.jar --concurrency=64 --warmup=PT15S --duration=PT2M \
+ *      --mix=checkout:30,browse:40,invoice:15,report:15 --spring.threads.virtual.enabled=true
+ * </pre>
+ * Checkouts have 1 to 5 lines unless {@code --lines} fixes the count, e.g. to compare small and large baskets.
+ * Other {@code --name=value} arguments are handed to the application, so any of its properties can be varied.
+ * {@code --mode=ingest} instead measures rows per second for bulk seeding and order creation.
+ */
+public final class LoadTestMain {
+    private LoadTestMain() {}
+
+    public static void main(String[] args) {
+        try {
+            run(args);
+        } catch (Exception e) {
+            // Leftover non-daemon threads would otherwise keep a failed run (and a CI build) hanging.
+            e.printStackTrace();
+            System.exit(1);
+        }
+    }
+
+    private static void run(String[] args) throws Exception {
+        LoadTestOptions opts = LoadTestOptions.parse(args);
+        Path work = Files.createTempDirectory("minimart-loadtest");
+        try (EmbeddedPostgres pg = EmbeddedPostgres.builder().setDataDirectory(work.resolve("pg")).start();
+             ConfigurableApplicationContext app = SpringApplication.run(MinimartApplication.class, appArgs(pg, work, opts))) {
+            int port = ((WebServerApplicationContext) app).getWebServer().getPort();
+            System.out.println("Backend listening on http://localhost:" + port);
+            MinimartClient client = new MinimartClient(port, opts.concurrency());
+            client.login("admin@minimart.local", "Admin@123");
+
+            if (opts.mode() == LoadTestOptions.Mode.INGEST) {
+                Map<String, Object> result = new IngestBenchmark(app, client, opts).run();
+                System.out.printf("%n%-14s %9s %9s %12s%n", "ingest", "rows", "seconds", "rows/s");
+                result.forEach((name, r) -> {
+                    Map<?, ?> m = (Map<?, ?>) r;
+                    System.out.printf("%-14s %9d %9.2f %12.0f%n", name, (Long) m.get("rows"), (Double) m.get("seconds"), (Double) m.get("rowsPerSecond"));
+                });
+                new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(opts.output().toFile(), result);
+                System.out.println("Results written to " + opts.output().toAbsolutePath());
+                System.exit(0);
+            }
+
+            Workload workload = new Workload(client, opts);
+            System.out.printf("Seeding %d products and %d customers...%n", opts.products(), opts.customers());
+            workload.seed();
+            System.out.printf("Running %d clients: %s warm-up, %s measured%n", opts.concurrency(), opts.warmup(), opts.duration());
+            Map<String, Object> result = workload.run();
+
+            print(result);
+            new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(opts.output().toFile(), result);
+            System.out.println("Results written to " + opts.output().toAbsolutePath());
+        }
+        System.exit(0);
+    }
+
+    private static String[] appArgs(EmbeddedPostgres pg, Path work, LoadTestOptions opts) {
+        List<String> args = new ArrayList<>(List.of(
+                "--spring.datasource.url=" + pg.getJdbcUrl("postgres", "postgres"),
+                "--spring.datasource.username=postgres",
+                "--spring.datasource.password=",
+                "--server.port=0",
+                "--app.invoices.dir=" + work.resolve("invoices"),
+                "--spring.main.banner-mode=off",
+                "--logging.level.root=WARN"));
+        opts.appArgs().forEach((k, v) -> args.add("--" + k + "=" + v));
+        return args.toArray(String[]::new);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void print(Map<String, Object> result) {
+        System.out.printf("%n%-34s %9s %8s %10s %9s %9s %9s%n", "endpoint", "requests", "errors", "req/s", "p50 ms", "p95 ms", "p99 ms");
+        ((Map<String, Map<String, Object>>) result.get("endpoints")).forEach((name, s) ->
+                System.out.printf("%-34s %9d %7.2f%% %10.1f %9.1f %9.1f %9.1f%n", name,
+                        (Long) s.get("requests"), 100 * (Double) s.get("errorRate"), (Double) s.get("throughput"),
+                        (Double) s.get("p50Ms"), (Double) s.get("p95Ms"), (Double) s.get("p99Ms")));
+        System.out.println();
+    }
+}
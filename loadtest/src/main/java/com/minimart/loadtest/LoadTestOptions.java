@@ -0,0 +1,50 @@
+package com.minimart.loadtest;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/** Command line options, all in {@code --name=value} form; anything unrecognised is passed to the application. */
+record LoadTestOptions(Mode mode, int concurrency, Duration warmup, Duration duration, Map<Endpoint, Integer> mix,
+                       int lines, int products, int customers, Path output, Map<String, String> appArgs) {
+
+    private static final Set<String> OWN =
+            Set.of("mode", "concurrency", "warmup", "duration", "mix", "lines", "products", "customers", "output");
+
+    static LoadTestOptions parse(String[] args) {
+        Map<String, String> opts = new HashMap<>();
+        Map<String, String> appArgs = new HashMap<>();
+        for (String a : args) {
+            if (!a.startsWith("--") || !a.contains("=")) throw new IllegalArgumentException("Expected --name=value: " + a);
+            String name = a.substring(2, a.indexOf('='));
+            String value = a.substring(a.indexOf('=') + 1);
+            (OWN.contains(name) ? opts : appArgs).put(name, value);
+        }
+        return new LoadTestOptions(
+                Mode.valueOf(opts.getOrDefault("mode", "load").toUpperCase()),
+                Integer.parseInt(opts.getOrDefault("concurrency", "32")),
+                Duration.parse(opts.getOrDefault("warmup", "PT10S")),
+                Duration.parse(opts.getOrDefault("duration", "PT60S")),
+                mix(opts.getOrDefault("mix", "checkout:30,browse:40,invoice:15,report:15")),
+                Integer.parseInt(opts.getOrDefault("lines", "0")),
+                Integer.parseInt(opts.getOrDefault("products", "1000")),
+                Integer.parseInt(opts.getOrDefault("customers", "200")),
+                Path.of(opts.getOrDefault("output", "loadtest-result.json")),
+                appArgs);
+    }
+
+    /** {@code load} runs the traffic mix; {@code ingest} measures write throughput in rows per second. */
+    enum Mode { LOAD, INGEST }
+
+    private static Map<Endpoint, Integer> mix(String spec) {
+        Map<Endpoint, Integer> mix = new EnumMap<>(Endpoint.class);
+        for (String part : spec.split(",")) {
+            String[] kv = part.trim().split(":");
+            mix.put(Endpoint.valueOf(kv[0].trim().toUpperCase()), Integer.parseInt(kv[1].trim()));
+        }
+        return mix;
+    }
+}
@@ -0,0 +1,90 @@
+package com.minimart.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.Executors;
+
+/** Thin HTTP client for the API, authenticated with one bearer token. */
+final class MinimartClient {
+    private final HttpClient http;
+    private final ObjectMapper json = new ObjectMapper();
+    private final String base;
+    private volatile String token;
+
+    MinimartClient(int port, int concurrency) {
+        this.base = "http://localhost:" + port;
+        this.http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(Executors.newFixedThreadPool(Math.max(2, concurrency / 4)))
+                .build();
+    }
+
+    void login(String email, String password) {
+        HttpResponse<byte[]> res = post("/api/auth/login", Map.of("email", email, "password", password));
+        if (res.statusCode() != 200) throw new IllegalStateException("Login failed with HTTP " + res.statusCode());
+        token = read(res).get("token").asText();
+    }
+
+    HttpResponse<byte[]> get(String path) {
+        return exchange("GET", path, null);
+    }
+
+    HttpResponse<byte[]> post(String path, Object body) {
+        return exchange("POST", path, body);
+    }
+
+    /** Any request; {@code headers} are name/value pairs. A {@link Path} body is streamed as a CSV upload. */
+    HttpResponse<byte[]> exchange(String method, String path, Object body, String... headers) {
+        try {
+            HttpRequest.Builder b = request(path);
+            if (headers.length > 0) b.headers(headers);
+            if (body == null) {
+                b.method(method, HttpRequest.BodyPublishers.noBody());
+            } else if (body instanceof Path file) {
+                b.header("Content-Type", "text/csv").method(method, HttpRequest.BodyPublishers.ofFile(file));
+            } else {
+                b.header("Content-Type", "application/json")
+                        .method(method, HttpRequest.BodyPublishers.ofByteArray(json.writeValueAsBytes(body)));
+            }
+            return send(b.build());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    JsonNode read(HttpResponse<byte[]> res) {
+        try {
+            return json.readTree(res.body());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private HttpRequest.Builder request(String path) {
+        HttpRequest.Builder b = HttpRequest.newBuilder(URI.create(base + path)).timeout(Duration.ofSeconds(60));
+        if (token != null) b.header("Authorization", "Bearer " + token);
+        return b;
+    }
+
+    private HttpResponse<byte[]> send(HttpRequest req) {
+        try {
+            return http.send(req, HttpResponse.BodyHandlers.ofByteArray());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.minimart.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.net.URLEncoder;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Seeds a catalog and customer base through the API, then runs {@code concurrency} closed-loop clients that each
+ * pick the next request from the weighted mix. Only requests that start after the warm-up are recorded.
+ */
+final class Workload {
+    private static final int CATEGORIES = 20;
+    private static final int RECENT_ORDERS = 4096;
+
+    private final MinimartClient client;
+    private final LoadTestOptions opts;
+    private final Map<Endpoint, LatencyRecorder> recorders = new EnumMap<>(Endpoint.class);
+    private final Endpoint[] weighted;
+    private final List<Long> productIds = new CopyOnWriteArrayList<>();
+    private final List<Long> customerIds = new CopyOnWriteArrayList<>();
+    // Ring of recently placed orders that invoice downloads pick from.
+    private final AtomicLongArray recentOrders = new AtomicLongArray(RECENT_ORDERS);
+    private final AtomicLong placed = new AtomicLong();
+
+    Workload(MinimartClient client, LoadTestOptions opts) {
+        this.client = client;
+        this.opts = opts;
+        List<Endpoint> w = new ArrayList<>();
+        opts.mix().forEach((e, weight) -> { for (int i = 0; i < weight; i++) w.add(e); });
+        if (w.isEmpty()) throw new IllegalArgumentException("The request mix is empty");
+        this.weighted = w.toArray(Endpoint[]::new);
+        for (Endpoint e : Endpoint.values()) recorders.put(e, new LatencyRecorder());
+    }
+
+    void seed() throws InterruptedException {
+        ExecutorService pool = Executors.newFixedThreadPool(opts.concurrency());
+        for (int i = 1; i <= opts.products(); i++) {
+            int n = i;
+            pool.execute(() -> productIds.add(id(client.post("/api/products", Map.of(
+                    "name", "Load product " + n,
+                    "sku", "LOAD-" + n + "-" + UUID.randomUUID().toString().substring(0, 8),
+                    "price", 1 + (n % 500) / 10.0,
+                    "stock", 10_000_000,
+                    "category", "Category " + (n % CATEGORIES),
+                    "supplier", "Supplier " + (n % 7))))));
+        }
+        for (int i = 1; i <= opts.customers(); i++) {
+            int n = i;
+            pool.execute(() -> customerIds.add(id(client.post("/api/customers", Map.of(
+                    "name", "Load customer " + n,
+                    "email", "load" + n + "@example.com",
+                    "phone", "555" + n)))));
+        }
+        pool.shutdown();
+        pool.awaitTermination(10, TimeUnit.MINUTES);
+        if (productIds.size() < opts.products() || customerIds.size() < opts.customers()) {
+            throw new IllegalStateException("Seeding failed: " + productIds.size() + " products, " + customerIds.size() + " customers");
+        }
+    }
+
+    Map<String, Object> run() throws InterruptedException {
+        long start = System.nanoTime();
+        long measureFrom = start + opts.warmup().toNanos();
+        long end = measureFrom + opts.duration().toNanos();
+        List<Thread> threads = new ArrayList<>(opts.concurrency());
+        for (int i = 0; i < opts.concurrency(); i++) {
+            Thread t = new Thread(() -> loop(measureFrom, end), "load-" + i);
+            t.start();
+            threads.add(t);
+        }
+        for (Thread t : threads) t.join();
+
+        double seconds = opts.duration().toNanos() / 1e9;
+        Map<String, Object> endpoints = new LinkedHashMap<>();
+        recorders.forEach((e, r) -> endpoints.put(e.label, r.summary(seconds)));
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("concurrency", opts.concurrency());
+        result.put("warmup", opts.warmup().toString());
+        result.put("duration", opts.duration().toString());
+        result.put("mix", opts.mix());
+        result.put("appArgs", opts.appArgs());
+        result.put("endpoints", endpoints);
+        return result;
+    }
+
+    private void loop(long measureFrom, long end) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long now;
+        while ((now = System.nanoTime()) < end) {
+            Endpoint e = weighted[random.nextInt(weighted.length)];
+            long orderId = 0;
+            // An invoice needs an order; until the slot picked holds one, place an order instead.
+            if (e == Endpoint.INVOICE && (orderId = recentOrder(random)) == 0) e = Endpoint.CHECKOUT;
+            boolean ok;
+            try {
+                ok = call(e, orderId, random);
+            } catch (RuntimeException ex) {
+                ok = false;
+            }
+            if (now >= measureFrom) recorders.get(e).record(System.nanoTime() - now, ok);
+        }
+    }
+
+    private boolean call(Endpoint e, long orderId, ThreadLocalRandom random) {
+        switch (e) {
+            case CHECKOUT -> {
+                int lines = opts.lines() > 0 ? opts.lines() : 1 + random.nextInt(5);
+                List<Map<String, Object>> items = new ArrayList<>(lines);
+                for (int i = 0; i < lines; i++) {
+                    items.add(Map.of("productId", pick(productIds, random), "quantity", 1 + random.nextInt(3)));
+                }
+                HttpResponse<byte[]> res = client.post("/api/orders", Map.of("customerId", pick(customerIds, random), "items", items));
+                if (!ok(res)) return false;
+                long id = id(res);
+                // The slot is claimed before it is filled, so readers can briefly see it empty (0).
+                recentOrders.set((int) (placed.getAndIncrement() % RECENT_ORDERS), id);
+                return true;
+            }
+            case BROWSE -> {
+                String category = URLEncoder.encode("Category " + random.nextInt(CATEGORIES), StandardCharsets.UTF_8);
+                String sort = random.nextBoolean() ? "price" : "name";
+                return ok(client.get("/api/products?limit=50&sort=" + sort + "&category=" + category));
+            }
+            case INVOICE -> {
+                return ok(client.get("/api/orders/" + orderId + "/invoice.pdf"));
+            }
+            case REPORT -> {
+                LocalDate to = LocalDate.now();
+                return ok(client.get("/api/reports/sales?from=" + to.minusDays(random.nextInt(31)) + "&to=" + to));
+            }
+        }
+        throw new IllegalArgumentException("Unknown endpoint " + e);
+    }
+
+    /** A recently placed order, or 0 when none has been published in the slot picked yet. */
+    private long recentOrder(ThreadLocalRandom random) {
+        long n = placed.get();
+        return n == 0 ? 0 : recentOrders.get((int) random.nextLong(Math.min(n, RECENT_ORDERS)));
+    }
+
+    private long id(HttpResponse<byte[]> res) {
+        if (!ok(res)) throw new IllegalStateException("HTTP " + res.statusCode() + " from " + res.uri());
+        JsonNode body = client.read(res);
+        return body.get("id").asLong();
+    }
+
+    private static boolean ok(HttpResponse<byte[]> res) {
+        return res.statusCode() / 100 == 2;
+    }
+
+    private static Long pick(List<Long> ids, ThreadLocalRandom random) {
+        return ids.get(random.nextInt(ids.size()));
+    }
+}